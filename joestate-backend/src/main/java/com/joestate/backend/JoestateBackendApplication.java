@@ -3,10 +3,19 @@ package com.joestate.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Map;
+
 @SpringBootApplication
 public class JoestateBackendApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(JoestateBackendApplication.class, args);
+        SpringApplication app = new SpringApplication(JoestateBackendApplication.class);
+        // Upload limits (enforced by the container while it parses the multipart). Spring's own defaults
+        // (1MB/10MB) would reject a normal listing; application.properties can still override these.
+        app.setDefaultProperties(Map.of(
+                "spring.servlet.multipart.max-file-size", "15MB",
+                "spring.servlet.multipart.max-request-size", "300MB"
+        ));
+        app.run(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.joestate.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.joestate.backend.repositories.FavoriteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-user favorites, kept in memory so resolving isFavorite on a page of cards doesn't load
+ * the User, its favorites collection and every favorited Property.
+ *
+ * Loaded with a single ID-only query on first use, then patched in place by toggleFavorite.
+ * Bounded by user count and idle time, so only recently active users stay resident.
+ */
+@Component
+public class FavoriteIdsCache {
+
+    private final FavoriteRepository favoriteRepository;
+    private final Cache<String, FavoriteIds> cache;
+
+    public FavoriteIdsCache(
+            FavoriteRepository favoriteRepository,
+            @Value("${joestate.favorites-cache.max-users:50000}") long maxUsers,
+            @Value("${joestate.favorites-cache.idle-minutes:30}") long idleMinutes
+    ) {
+        this.favoriteRepository = favoriteRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    public FavoriteIds get(String email) {
+        return cache.get(email, e -> FavoriteIds.of(favoriteRepository.findPropertyIdsByUserEmail(e)));
+    }
+
+    // Called after the DB write. with/without are idempotent, so this is correct whether a concurrent
+    // load read the table before or after the write: the patch is applied on top of it either way.
+    public void added(String email, Long propertyId) {
+        cache.asMap().computeIfPresent(email, (e, ids) -> ids.with(propertyId));
+    }
+
+    public void removed(String email, Long propertyId) {
+        cache.asMap().computeIfPresent(email, (e, ids) -> ids.without(propertyId));
+    }
+}
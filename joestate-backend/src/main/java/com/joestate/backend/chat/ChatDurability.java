@@ -0,0 +1,12 @@
+package com.joestate.backend.chat;
+
+/**
+ * When a live chat message is acknowledged (returned to the controller and broadcast),
+ * relative to the group commit that persists it. Set with joestate.chat.durability.
+ */
+public enum ChatDurability {
+    // Ack as soon as the lane has numbered the message. Fastest; a crash can lose the last few milliseconds of messages.
+    ASYNC,
+    // Ack after the batch holding the message is committed. Still one commit per batch, not per message.
+    SYNC
+}
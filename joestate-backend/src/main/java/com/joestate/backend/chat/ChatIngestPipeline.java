@@ -0,0 +1,288 @@
+package com.joestate.backend.chat;
+
+import com.joestate.backend.dto.MessageDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind path for live chat messages, partitioned into lanes by chat thread.
+ *
+ * Every conversation belongs to one lane (threadId mod lanes), and each lane is a single thread with its
+ * own bounded mailbox, like an actor: it gives a message its ID (the sequence number clients order and
+ * page by), acks it, and persists whatever has piled up in its mailbox in one transaction through
+ * {@link ChatMessageWriter} (group commit). So the messages of a conversation are numbered, broadcast
+ * and saved strictly in the order they arrived, while different conversations run in parallel on
+ * their own lanes. Under load a batch holds many messages, so throughput is no longer one database
+ * round trip per message.
+ *
+ * A batch is retried only on transient errors (deadlock, lock timeout, lost connection). Anything else is
+ * split into single rows right away, so one bad row (e.g. its thread was just deleted) can't hold up the
+ * lane; a row that still fails is dropped and reported through onFailed, so the UI can take it back.
+ *
+ * Backpressure: when a lane's mailbox is full, senders wait up to enqueue-timeout-ms and are then turned away.
+ * In ASYNC mode a message is acked before its batch commits, so a history request sent at the same
+ * moment may not see it yet; SYNC acks after the commit (see {@link ChatDurability}).
+ *
+ * IDs continue from MAX(message_id) at startup, so there must be a single backend instance writing messages.
+ */
+@Slf4j
+@Component
+public class ChatIngestPipeline {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    private final ChatMessageWriter messageWriter;
+    private final ChatDurability durability;
+    private final int maxBatch;
+    private final long enqueueTimeoutMs;
+
+    private final List<BlockingQueue<IncomingMessage>> lanes;
+    private final ExecutorService laneThreads;
+    private final AtomicLong lastMessageId;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+
+    public ChatIngestPipeline(
+            ChatMessageWriter messageWriter,
+            @Value("${joestate.chat.durability:ASYNC}") ChatDurability durability,
+            @Value("${joestate.chat.lanes:0}") int laneCount, // 0 = one per core
+            @Value("${joestate.chat.lane-capacity:2000}") int laneCapacity,
+            @Value("${joestate.chat.max-batch:200}") int maxBatch,
+            @Value("${joestate.chat.enqueue-timeout-ms:200}") long enqueueTimeoutMs
+    ) {
+        this.messageWriter = messageWriter;
+        this.durability = durability;
+        this.maxBatch = maxBatch;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.lastMessageId = new AtomicLong(messageWriter.findLastMessageId());
+
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) lanes.add(new ArrayBlockingQueue<>(laneCapacity));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.laneThreads = Executors.newFixedThreadPool(count, r -> {
+            Thread t = new Thread(r, "chat-lane-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (BlockingQueue<IncomingMessage> mailbox : lanes) laneThreads.execute(() -> runLane(mailbox));
+    }
+
+    // ==========================================
+    // 1. ACCEPT (request side)
+    // ==========================================
+
+    // Queues the message on its thread's lane. onAck gets the saved message (with its ID) on the lane thread,
+    // in order with the rest of the conversation; onFailed gets the ID if it could not be saved after all
+    // (in ASYNC mode after it was acked). The caller has already checked that the sender belongs to the thread.
+    public void submit(Long threadId, Long senderId, String senderName, String content, boolean fromInquirer,
+                       Consumer<MessageDTO> onAck, Consumer<Long> onFailed) {
+        if (!running) throw new RuntimeException("Chat is shutting down, please try again in a moment");
+
+        IncomingMessage message = new IncomingMessage(threadId, senderId, senderName, content, fromInquirer, onAck, onFailed);
+        try {
+            if (!laneOf(threadId).offer(message, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new RuntimeException("Chat is busy right now, please try again in a moment");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Message was not sent");
+        }
+        accepted.increment();
+    }
+
+    private BlockingQueue<IncomingMessage> laneOf(Long threadId) {
+        // Thread IDs are sequential, so a plain modulo spreads conversations evenly
+        return lanes.get((int) Math.floorMod(threadId, (long) lanes.size()));
+    }
+
+    // ==========================================
+    // 2. LANES (one thread each: number, ack, group commit)
+    // ==========================================
+
+    private void runLane(BlockingQueue<IncomingMessage> mailbox) {
+        List<IncomingMessage> incoming = new ArrayList<>(maxBatch);
+        List<PendingMessage> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            IncomingMessage first;
+            try {
+                first = mailbox.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = null;
+            }
+            if (first == null) {
+                if (!running && mailbox.isEmpty()) return;
+                continue;
+            }
+
+            // Everything that queued up while the previous batch was committing goes into this one
+            incoming.add(first);
+            mailbox.drainTo(incoming, maxBatch - 1);
+
+            for (IncomingMessage in : incoming) {
+                PendingMessage m = new PendingMessage(lastMessageId.incrementAndGet(), in.threadId, in.senderId,
+                        in.content, LocalDateTime.now(), in.fromInquirer);
+                batch.add(m);
+                if (durability == ChatDurability.ASYNC) ack(in, m);
+            }
+
+            Set<Long> failed = flush(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                if (failed.contains(batch.get(i).getMessageId())) {
+                    reportFailure(incoming.get(i), batch.get(i));
+                } else if (durability == ChatDurability.SYNC) {
+                    ack(incoming.get(i), batch.get(i));
+                }
+            }
+            incoming.clear();
+            batch.clear();
+        }
+    }
+
+    private void ack(IncomingMessage in, PendingMessage m) {
+        MessageDTO dto = MessageDTO.builder()
+                .messageId(m.getMessageId())
+                .senderId(m.getSenderId())
+                .senderName(in.senderName)
+                .content(m.getContent())
+                .timestamp(m.getTimestamp())
+                .build();
+        try {
+            in.onAck.accept(dto);
+        } catch (RuntimeException e) {
+            // A failed broadcast must not stop the lane (the message is saved either way)
+            log.warn("Chat ack failed for message {}: {}", m.getMessageId(), e.getMessage());
+        }
+    }
+
+    private void reportFailure(IncomingMessage in, PendingMessage m) {
+        try {
+            in.onFailed.accept(m.getMessageId());
+        } catch (RuntimeException e) {
+            log.warn("Chat failure notice failed for message {}: {}", m.getMessageId(), e.getMessage());
+        }
+    }
+
+    // Returns the IDs that could not be saved (normally none)
+    private Set<Long> flush(List<PendingMessage> batch) {
+        long start = System.nanoTime();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                messageWriter.writeBatch(batch);
+                batches.increment();
+                persisted.add(batch.size());
+                flushNanos.add(System.nanoTime() - start);
+                return Collections.emptySet();
+            } catch (RuntimeException e) {
+                log.warn("Chat batch of {} failed (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                if (!isTransient(e)) break; // retrying won't help, and the whole lane would wait for it
+                if (attempt < MAX_ATTEMPTS) pause(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+
+        // Still failing (or a bad row): write the messages one by one, so a single bad row can't take the rest down with it
+        Set<Long> failed = new HashSet<>();
+        for (PendingMessage m : batch) {
+            try {
+                messageWriter.writeBatch(List.of(m));
+                persisted.increment();
+            } catch (RuntimeException e) {
+                dropped.increment();
+                failed.add(m.getMessageId());
+                log.error("Dropped chat message {} in thread {}", m.getMessageId(), m.getThreadId(), e);
+            }
+        }
+        return failed;
+    }
+
+    // Deadlocks, lock timeouts, dropped connections: worth another try. Constraint violations and the like are not.
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stop accepting, then let the lanes drain what's queued before the database goes away
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        laneThreads.shutdown();
+        try {
+            if (!laneThreads.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.error("Chat lanes did not finish, {} messages not persisted", queued());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int queued() {
+        return lanes.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("durability", durability.name());
+        result.put("lanes", lanes.size());
+        result.put("accepted", accepted.sum());
+        result.put("rejected", rejected.sum());
+        result.put("persisted", persisted.sum());
+        result.put("dropped", dropped.sum());
+        result.put("queued", queued());
+        result.put("busiestLane", lanes.stream().mapToInt(BlockingQueue::size).max().orElse(0));
+        result.put("batches", batchCount);
+        result.put("avgBatchSize", batchCount == 0 ? 0 : (double) persisted.sum() / batchCount);
+        result.put("avgFlushMicros", batchCount == 0 ? 0 : flushNanos.sum() / batchCount / 1000);
+        return result;
+    }
+
+    // A message waiting in a lane's mailbox, before it has an ID
+    private static class IncomingMessage {
+        final Long threadId;
+        final Long senderId;
+        final String senderName;
+        final String content;
+        final boolean fromInquirer;
+        final Consumer<MessageDTO> onAck;
+        final Consumer<Long> onFailed;
+
+        IncomingMessage(Long threadId, Long senderId, String senderName, String content, boolean fromInquirer,
+                        Consumer<MessageDTO> onAck, Consumer<Long> onFailed) {
+            this.threadId = threadId;
+            this.senderId = senderId;
+            this.senderName = senderName;
+            this.content = content;
+            this.fromInquirer = fromInquirer;
+            this.onAck = onAck;
+            this.onFailed = onFailed;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.joestate.backend.chat;
+
+import com.joestate.backend.repositories.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists a batch of live chat messages in one transaction: a single multi-row INSERT for the messages,
+ * then one JDBC batch with one inbox summary UPDATE per thread in the batch.
+ *
+ * Plain JDBC on purpose: the IDs are already assigned by {@link ChatIngestPipeline}, and there is
+ * nothing to gain from loading threads and users into a persistence context.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMessageWriter {
+
+    private static final int PREVIEW_LENGTH = 255;
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO messages (message_id, thread_id, sender_id, content, timestamp, is_read) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, false)";
+
+    // A thread's batches all come from its one lane, in order, so the newest message of the batch simply wins
+    private static final String UPDATE_SUMMARY = "UPDATE chat_threads SET last_message_preview = ?, last_sender_id = ?, " +
+            "last_updated_at = ?, inquirer_unread_count = inquirer_unread_count + ?, owner_unread_count = owner_unread_count + ? " +
+            "WHERE thread_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageRepository messageRepository;
+
+    // Highest ID handed out so far: the lanes continue numbering from here after a restart
+    public long findLastMessageId() {
+        return messageRepository.findMaxMessageId();
+    }
+
+    @Transactional
+    public void writeBatch(List<PendingMessage> batch) {
+        insertMessages(batch);
+        updateSummaries(batch);
+    }
+
+    private void insertMessages(List<PendingMessage> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (INSERT_ROW.length() + 2))
+                .append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 5];
+        int i = 0;
+        for (PendingMessage m : batch) {
+            if (i > 0) sql.append(", ");
+            sql.append(INSERT_ROW);
+            args[i++] = m.getMessageId();
+            args[i++] = m.getThreadId();
+            args[i++] = m.getSenderId();
+            args[i++] = m.getContent();
+            args[i++] = m.getTimestamp();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private void updateSummaries(List<PendingMessage> batch) {
+        // Per thread: the newest message of the batch, plus how many each side hasn't read yet
+        Map<Long, ThreadSummary> byThread = new LinkedHashMap<>();
+        for (PendingMessage m : batch) byThread.computeIfAbsent(m.getThreadId(), id -> new ThreadSummary()).add(m);
+
+        List<Object[]> rows = new ArrayList<>(byThread.size());
+        for (Map.Entry<Long, ThreadSummary> e : byThread.entrySet()) {
+            PendingMessage last = e.getValue().last;
+            rows.add(new Object[]{
+                    preview(last.getContent()), last.getSenderId(), last.getTimestamp(),
+                    e.getValue().inquirerUnread, e.getValue().ownerUnread,
+                    e.getKey()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SUMMARY, rows);
+    }
+
+    private static String preview(String content) {
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+
+    private static class ThreadSummary {
+        PendingMessage last;
+        int inquirerUnread;
+        int ownerUnread;
+
+        void add(PendingMessage m) {
+            last = m; // a batch is in ID order
+            // A message from the inquirer is unread for the owner, and the other way round
+            if (m.isFromInquirer()) ownerUnread++;
+            else inquirerUnread++;
+        }
+    }
+}
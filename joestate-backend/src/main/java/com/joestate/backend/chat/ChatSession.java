@@ -0,0 +1,67 @@
+package com.joestate.backend.chat;
+
+import com.joestate.backend.dto.ChatParticipants;
+import com.joestate.backend.dto.ChatSender;
+import com.joestate.backend.entities.User;
+import lombok.Getter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The authenticated user of one STOMP connection, kept in its session attributes.
+ *
+ * Built once when the JWT is checked on CONNECT, so sending a message needs no user lookup. The ban status
+ * is kept current by {@link ChatSessionRegistry}; the threads map only ever holds threads this user
+ * was found to be part of.
+ */
+@Getter
+public class ChatSession {
+
+    public static final String ATTRIBUTE = "chatSession";
+
+    private final Long userId;
+    private final String email;
+    private final String displayName;
+    private volatile User.BanStatus banStatus;
+
+    private final Map<Long, ChatParticipants> threads = new ConcurrentHashMap<>();
+
+    public ChatSession(ChatSender sender) {
+        this.userId = sender.getUserId();
+        this.email = sender.getEmail();
+        this.displayName = sender.getFirstName() + " " + sender.getLastName();
+        this.banStatus = sender.getBanStatus();
+    }
+
+    // The session a frame belongs to; missing when the client never sent a valid CONNECT
+    public static ChatSession of(SimpMessageHeaderAccessor headers) {
+        Map<String, Object> attributes = headers.getSessionAttributes();
+        ChatSession session = attributes == null ? null : (ChatSession) attributes.get(ATTRIBUTE);
+        if (session == null) throw new RuntimeException("Not connected");
+        return session;
+    }
+
+    public boolean canSendMessages() {
+        return banStatus != User.BanStatus.MUTE_MESSAGES
+                && banStatus != User.BanStatus.MUTE_BOTH
+                && banStatus != User.BanStatus.BANNED;
+    }
+
+    void setBanStatus(User.BanStatus banStatus) {
+        this.banStatus = banStatus;
+    }
+
+    public ChatParticipants getThread(Long threadId) {
+        return threads.get(threadId);
+    }
+
+    public void rememberThread(ChatParticipants thread) {
+        threads.put(thread.getThreadId(), thread);
+    }
+
+    void forgetThreadsOf(Long propertyId) {
+        threads.values().removeIf(t -> t.getPropertyId().equals(propertyId));
+    }
+}
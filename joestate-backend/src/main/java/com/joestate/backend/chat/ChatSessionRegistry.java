@@ -0,0 +1,47 @@
+package com.joestate.backend.chat;
+
+import com.joestate.backend.events.UserBanChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The live STOMP sessions per user, so changes to what a session caches (ban status, deleted threads)
+// reach connections that are already open.
+@Component
+public class ChatSessionRegistry {
+
+    private final Map<Long, Set<ChatSession>> sessionsByUser = new ConcurrentHashMap<>();
+
+    public void register(ChatSession session) {
+        sessionsByUser.computeIfAbsent(session.getUserId(), id -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(event.getMessage().getHeaders());
+        ChatSession session = attributes == null ? null : (ChatSession) attributes.get(ChatSession.ATTRIBUTE);
+        if (session == null) return;
+
+        sessionsByUser.computeIfPresent(session.getUserId(), (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBanChanged(UserBanChangedEvent event) {
+        Set<ChatSession> sessions = sessionsByUser.get(event.getUserId());
+        if (sessions != null) sessions.forEach(s -> s.setBanStatus(event.getBanStatus()));
+    }
+
+    // A deleted listing takes its threads with it
+    public void forgetThreadsOf(Long propertyId) {
+        sessionsByUser.values().forEach(sessions -> sessions.forEach(s -> s.forgetThreadsOf(propertyId)));
+    }
+}
@@ -0,0 +1,18 @@
+package com.joestate.backend.chat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// A live message that has its ID (assigned by its lane) but may not be in the database yet
+@Getter
+@AllArgsConstructor
+public class PendingMessage {
+    private final Long messageId;
+    private final Long threadId;
+    private final Long senderId;
+    private final String content;
+    private final LocalDateTime timestamp;
+    private final boolean fromInquirer; // decides whose unread counter goes up
+}
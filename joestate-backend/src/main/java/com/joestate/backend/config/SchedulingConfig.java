@@ -0,0 +1,10 @@
+package com.joestate.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (@Scheduled): uploads layout migration, media maintenance
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
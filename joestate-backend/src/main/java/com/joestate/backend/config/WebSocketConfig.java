@@ -1,6 +1,9 @@
 package com.joestate.backend.config;
 
+import com.joestate.backend.security.StompAuthInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -8,14 +11,19 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthInterceptor stompAuthInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // "/topic" is the prefix for broadcasting messages back to React
         config.enableSimpleBroker("/topic");
         // "/app" is the prefix React will use to send messages TO Spring Boot
         config.setApplicationDestinationPrefixes("/app");
+        // Deliver broadcasts to each client in the order they were sent (chat lanes send a thread's messages in order)
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -24,5 +32,14 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("http://localhost:5173") // Allow React to connect
                 .withSockJS(); // Fallback for older browsers
+
+        // Hand a client's frames to the controllers in the order they arrived, so its messages reach their chat lane in order
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // React sends its JWT on CONNECT; every frame after that is checked against that session
+        registration.interceptors(stompAuthInterceptor);
     }
 }
\ No newline at end of file
@@ -30,6 +30,28 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getRecentActivity());
     }
 
+    @GetMapping("/search-cache")
+    public ResponseEntity<java.util.Map<String, Object>> getSearchCacheStats() {
+        return ResponseEntity.ok(adminService.getSearchCacheStats());
+    }
+
+    @GetMapping("/media")
+    public ResponseEntity<java.util.Map<String, Object>> getMediaStats() {
+        return ResponseEntity.ok(adminService.getMediaStats());
+    }
+
+    // Last run of the nightly orphan upload cleanup
+    @GetMapping("/media/gc")
+    public ResponseEntity<java.util.Map<String, Object>> getMediaGcReport() {
+        return ResponseEntity.ok(adminService.getMediaGcReport());
+    }
+
+    // Live chat write-behind queue: how much is queued, batch sizes, anything dropped
+    @GetMapping("/chat")
+    public ResponseEntity<java.util.Map<String, Object>> getChatPipelineStats() {
+        return ResponseEntity.ok(adminService.getChatPipelineStats());
+    }
+
     // ==========================================
     // 2. USER MANAGEMENT & AUDITING
     // ==========================================
@@ -1,5 +1,7 @@
 package com.joestate.backend.controllers;
 
+import com.joestate.backend.chat.ChatSession;
+import com.joestate.backend.dto.ChatParticipants;
 import com.joestate.backend.dto.ChatThreadDTO;
 import com.joestate.backend.dto.MessageDTO;
 import com.joestate.backend.services.ChatService;
@@ -8,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -47,29 +50,40 @@ public class ChatController {
         return ResponseEntity.ok(chatService.getUserInbox(email));
     }
 
-    // 3. Fetch History of a specific chat
+    // 3. Fetch History of a specific chat: latest page, or the page before a message ID (scrolling up)
     @GetMapping("/{threadId}/history")
-    public ResponseEntity<List<MessageDTO>> getChatHistory(@PathVariable Long threadId) {
+    public ResponseEntity<List<MessageDTO>> getChatHistory(
+            @PathVariable Long threadId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size
+    ) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return ResponseEntity.ok(chatService.getChatHistory(threadId, email));
+        int pageSize = Math.max(1, Math.min(size, 100));
+        return ResponseEntity.ok(chatService.getChatHistory(threadId, email, before, pageSize));
     }
 
     // 4. THE LIVE WEBSOCKET ENDPOINT
+    // The sender is the user the connection was authenticated as on CONNECT, never something from the payload
     @MessageMapping("/chat/{threadId}/send")
-    public void sendLiveMessage(@DestinationVariable Long threadId, @Payload Map<String, String> payload) {
-        String senderEmail = payload.get("senderEmail");
-        String content = payload.get("content");
+    public void sendLiveMessage(@DestinationVariable Long threadId, @Payload Map<String, String> payload,
+                                SimpMessageHeaderAccessor headers) {
+        ChatSession me = ChatSession.of(headers);
+        ChatParticipants thread = chatService.getThreadFor(threadId, me);
+        String receiverEmail = thread.otherEmail(me.getUserId());
 
-        // React will tell us who the receiver is!
-        String receiverEmail = payload.get("receiverEmail");
+        // Checked now, then handled on the thread's chat lane: it gets its ID, is broadcast and saved
+        // strictly in order with the rest of this conversation (the broadcast below runs on the lane)
+        chatService.sendMessage(thread, me, payload.get("content"), savedMessage -> {
+            // Broadcast to anyone listening to this specific thread room (For the Chat UI)
+            messagingTemplate.convertAndSend("/topic/thread/" + threadId, savedMessage);
 
-        // Save to Database
-        MessageDTO savedMessage = chatService.saveMessage(threadId, senderEmail, content);
-
-        // Broadcast to anyone listening to this specific thread room (For the Chat UI)
-        messagingTemplate.convertAndSend("/topic/thread/" + threadId, savedMessage);
-
-        // Broadcast a global alert to the receiver's personal channel!
-        messagingTemplate.convertAndSend("/topic/user/" + receiverEmail, "{\"type\":\"NEW_MESSAGE\"}");
+            // Broadcast a global alert to the receiver's personal channel!
+            messagingTemplate.convertAndSend("/topic/user/" + receiverEmail, "{\"type\":\"NEW_MESSAGE\"}");
+        }, messageId -> {
+            // Not saved after all (it may already have been broadcast): both sides take it back out of the chat
+            String failed = "{\"type\":\"MESSAGE_FAILED\",\"threadId\":" + threadId + ",\"messageId\":" + messageId + "}";
+            messagingTemplate.convertAndSend("/topic/user/" + me.getEmail(), failed);
+            messagingTemplate.convertAndSend("/topic/user/" + receiverEmail, failed);
+        });
     }
 }
\ No newline at end of file
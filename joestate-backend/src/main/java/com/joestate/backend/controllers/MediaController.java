@@ -0,0 +1,172 @@
+package com.joestate.backend.controllers;
+
+import com.joestate.backend.media.MediaMetrics;
+import com.joestate.backend.media.MediaStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Pattern;
+
+/**
+ * Serves /uploads/** (replaces the default static resource handler).
+ *
+ * Content-addressed files (sha256 name, see ContentAddressedMediaStore) and their renditions never change,
+ * so they are sent with a one-year immutable Cache-Control and repeat visitors don't revalidate at all.
+ * Older UUID-named files get a shorter max-age plus an ETag. Single byte ranges are supported, and the
+ * body goes out through Tomcat's sendfile when available: the transfer is zero-copy and happens on the
+ * poller, not on a request thread.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MediaController {
+
+    private static final Pattern FINGERPRINTED = Pattern.compile("^([0-9a-f]{64})(_(thumb|card|full))?\\.[a-z0-9]{1,5}$");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String LEGACY = "public, max-age=86400";
+
+    // Tomcat request attributes (org.apache.catalina.Globals), by name so we don't depend on Tomcat classes
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final MediaStore mediaStore;
+    private final MediaMetrics metrics;
+
+    @RequestMapping(value = "/uploads/{fileName:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long started = System.nanoTime();
+        int status = HttpServletResponse.SC_OK;
+        long bytes = 0;
+        boolean viaSendfile = false;
+
+        try {
+            // 1. Resolve the file (sharded or old flat layout; plain names only, no escaping the uploads folder)
+            Path file = MediaStore.isValidName(fileName) ? mediaStore.resolve(fileName).toAbsolutePath() : null;
+            BasicFileAttributes attrs = file != null && Files.isRegularFile(file)
+                    ? Files.readAttributes(file, BasicFileAttributes.class) : null;
+            if (attrs == null) {
+                status = HttpServletResponse.SC_NOT_FOUND;
+                response.sendError(status);
+                return;
+            }
+
+            // 2. Validators + caching headers
+            long length = attrs.size();
+            boolean fingerprinted = FINGERPRINTED.matcher(fileName).matches();
+            String etag = fingerprinted
+                    ? "\"" + fileName + "\""
+                    : "\"" + Long.toHexString(length) + "-" + Long.toHexString(attrs.lastModifiedTime().toMillis()) + "\"";
+
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, fingerprinted ? IMMUTABLE : LEGACY);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, attrs.lastModifiedTime().toMillis());
+
+            if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                status = HttpServletResponse.SC_NOT_MODIFIED;
+                response.setStatus(status);
+                return;
+            }
+
+            // 3. Byte range (only a single range; anything else gets the whole file)
+            long start = 0, end = length - 1;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                long[] parsed = parseRange(range, length);
+                if (parsed == null) {
+                    status = HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE;
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(status);
+                    return;
+                }
+                if (parsed.length == 2) {
+                    start = parsed[0];
+                    end = parsed[1];
+                    status = HttpServletResponse.SC_PARTIAL_CONTENT;
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+
+            long count = end - start + 1;
+            response.setStatus(status);
+            response.setContentType(MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count == 0) return;
+
+            // 4. Body: zero-copy sendfile when Tomcat offers it, otherwise a channel transfer
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1); // exclusive
+                viaSendfile = true;
+            } else {
+                try (FileChannel in = FileChannel.open(file);
+                     WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+                    long position = start;
+                    while (position <= end) position += in.transferTo(position, end + 1 - position, out);
+                }
+            }
+            bytes = count;
+        } finally {
+            metrics.record(status, bytes, viaSendfile, System.nanoTime() - started);
+        }
+    }
+
+    // ==========================================
+    // HELPERS
+    // ==========================================
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    // {start, end} for a satisfiable single range, {} to ignore the header (multi-range / malformed),
+    // null if unsatisfiable (-> 416)
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return new long[0];
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new long[0];
+
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            if (from.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0 || length == 0) return null;
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(from);
+            long last = to.isEmpty() ? Long.MAX_VALUE : Long.parseLong(to);
+            if (start < 0 || last < start) return new long[0]; // "bytes=5-2" is malformed, not unsatisfiable
+            if (start >= length) return null;
+            return new long[]{start, Math.min(last, length - 1)};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
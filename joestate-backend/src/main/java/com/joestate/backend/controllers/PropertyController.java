@@ -1,13 +1,20 @@
 package com.joestate.backend.controllers;
 
 import com.joestate.backend.dto.PropertyDTO;
+import com.joestate.backend.dto.PropertyFacetsDTO;
+import com.joestate.backend.dto.PropertyPageDTO;
+import com.joestate.backend.dto.PropertySearchCriteria;
+import com.joestate.backend.dto.PropertyView;
 import com.joestate.backend.entities.Property;
+import com.joestate.backend.search.SearchSort;
 import com.joestate.backend.services.PropertyService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import java.util.List;
@@ -20,22 +27,42 @@ public class PropertyController {
 
     private final PropertyService propertyService;
 
+    // Clients may keep a copy but must revalidate it (ETag) every time; private because favorite flags are per user
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Filters: location, purpose, type, rentFrequency, min/maxPrice, min/maxArea, beds, baths,
+    // q (full text), lat + lng + radiusKm (radius) and min/maxLat + min/maxLng (map viewport).
+    // ?view=card returns the slim card projection (no description / owner phone, main image only).
     @GetMapping("/search")
     public ResponseEntity<List<PropertyDTO>> search(
-            @RequestParam(required = false) String location,
-            @RequestParam(required = false) Property.Purpose purpose,
-            @RequestParam(required = false) Property.PropertyType type,
-            @RequestParam(required = false) Property.RentFrequency rentFrequency,
-            @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice,
-            @RequestParam(required = false) Integer minArea,
-            @RequestParam(required = false) Integer maxArea,
-            @RequestParam(required = false) Integer beds,
-            @RequestParam(required = false) Integer baths
+            @ModelAttribute PropertySearchCriteria criteria,
+            @RequestParam(required = false) String view
+    ) {
+        return ResponseEntity.ok(propertyService.searchProperties(criteria, PropertyView.parse(view)));
+    }
+
+    // Paginated search: same filters as /search, plus ?sort=, ?size= and the ?cursor= from the previous page.
+    // Without ?sort= the results come back by RELEVANCE when there is a ?q=, otherwise NEWEST first.
+    @GetMapping("/search/page")
+    public ResponseEntity<PropertyPageDTO> searchPage(
+            @ModelAttribute PropertySearchCriteria criteria,
+            @RequestParam(required = false) SearchSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String view
+    ) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        return ResponseEntity.ok(propertyService.searchPropertiesPage(criteria, sort, cursor, pageSize, PropertyView.parse(view)));
+    }
+
+    // Facet counts + price/area histograms for the filter sidebar (same filters as /search)
+    @GetMapping("/facets")
+    public ResponseEntity<PropertyFacetsDTO> facets(
+            @ModelAttribute PropertySearchCriteria criteria,
+            @RequestParam(defaultValue = "10") int buckets
     ) {
-        return ResponseEntity.ok(propertyService.searchProperties(
-                location, purpose, type, rentFrequency, minPrice, maxPrice, minArea, maxArea, beds, baths
-        ));
+        int bucketCount = Math.max(1, Math.min(buckets, 50));
+        return ResponseEntity.ok(propertyService.getSearchFacets(criteria, bucketCount));
     }
 
     @PostMapping(consumes = { MediaType.MULTIPART_FORM_DATA_VALUE })
@@ -58,16 +85,30 @@ public class PropertyController {
         return ResponseEntity.ok(propertyService.getLocationSuggestions(query));
     }
 
-    // Endpoint for featured properties
+    // Endpoint for featured properties (showcase=true returns the larger premium showcase set)
     @GetMapping("/featured")
-    public ResponseEntity<List<PropertyDTO>> getFeatured() {
-        return ResponseEntity.ok(propertyService.getFeaturedProperties());
+    public ResponseEntity<List<PropertyDTO>> getFeatured(@RequestParam(defaultValue = "false") boolean showcase, WebRequest request) {
+        String etag = propertyService.getFeaturedETag(showcase);
+        if (request.checkNotModified(etag)) return null; // 304, nothing else to do
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(propertyService.getFeaturedProperties(showcase));
     }
 
-    // Endpoint to get property by ID
+    // Endpoint to get property by ID (If-None-Match -> 304 without loading the listing)
     @GetMapping("/{id}")
-    public ResponseEntity<PropertyDTO> getPropertyById(@PathVariable Long id) {
-        return ResponseEntity.ok(propertyService.getPropertyById(id));
+    public ResponseEntity<PropertyDTO> getPropertyById(@PathVariable Long id, WebRequest request) {
+        String etag = propertyService.getPropertyETag(id);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(propertyService.getPropertyById(id));
+    }
+
+    // Endpoint for the "similar properties" strip under a listing
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<PropertyDTO>> getSimilar(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int k,
+            @RequestParam(required = false) String view
+    ) {
+        return ResponseEntity.ok(propertyService.getSimilarProperties(id, Math.max(1, Math.min(k, 50)), PropertyView.parse(view)));
     }
 
     @PostMapping("/{id}/favorite")
@@ -89,8 +130,15 @@ public class PropertyController {
 
     // GET /api/properties/user/{userId}
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PropertyDTO>> getUserProperties(@PathVariable Long userId) {
-        return ResponseEntity.ok(propertyService.getPublicUserProperties(userId));
+    public ResponseEntity<List<PropertyDTO>> getUserProperties(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String view,
+            WebRequest request
+    ) {
+        PropertyView propertyView = PropertyView.parse(view);
+        String etag = propertyService.getUserPropertiesETag(userId, propertyView);
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(propertyService.getPublicUserProperties(userId, propertyView));
     }
 
     // ==========================================
@@ -0,0 +1,36 @@
+package com.joestate.backend.controllers;
+
+import com.joestate.backend.dto.SavedSearchDTO;
+import com.joestate.backend.services.SavedSearchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/saved-searches")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    @GetMapping
+    public ResponseEntity<List<SavedSearchDTO>> getMySavedSearches(Authentication authentication) {
+        return ResponseEntity.ok(savedSearchService.getSavedSearches(authentication.getName()));
+    }
+
+    @PostMapping
+    public ResponseEntity<SavedSearchDTO> createSavedSearch(Authentication authentication, @Valid @RequestBody SavedSearchDTO dto) {
+        return ResponseEntity.ok(savedSearchService.createSavedSearch(dto, authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteSavedSearch(Authentication authentication, @PathVariable Long id) {
+        savedSearchService.deleteSavedSearch(id, authentication.getName());
+        return ResponseEntity.ok("Saved search deleted");
+    }
+}
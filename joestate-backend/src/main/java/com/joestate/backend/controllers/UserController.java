@@ -1,15 +1,18 @@
 package com.joestate.backend.controllers;
 
 import com.joestate.backend.dto.PropertyDTO;
+import com.joestate.backend.dto.PropertyView;
 import com.joestate.backend.dto.UserDTO;
 import com.joestate.backend.services.PropertyService;
 import com.joestate.backend.services.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -53,19 +56,25 @@ public class UserController {
 
     // 4. Get My Properties
     @GetMapping("/me/properties")
-    public ResponseEntity<List<PropertyDTO>> getMyProperties(Authentication authentication) {
-        return ResponseEntity.ok(propertyService.getPropertiesByUser(authentication.getName()));
+    public ResponseEntity<List<PropertyDTO>> getMyProperties(
+            Authentication authentication,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getPropertiesByUser(authentication.getName(), PropertyView.parse(view)));
     }
 
     // 5. Get My Favorites
     @GetMapping("/me/favorites")
-    public ResponseEntity<List<PropertyDTO>> getMyFavorites(Authentication authentication) {
-        return ResponseEntity.ok(propertyService.getFavoritesByUser(authentication.getName()));
+    public ResponseEntity<List<PropertyDTO>> getMyFavorites(
+            Authentication authentication,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getFavoritesByUser(authentication.getName(), PropertyView.parse(view)));
     }
 
     // GET /api/users/{id} (Public Profile)
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getPublicUserProfile(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getPublicUserProfile(id));
+    public ResponseEntity<UserDTO> getPublicUserProfile(@PathVariable Long id, WebRequest request) {
+        String etag = userService.getPublicProfileETag(id);
+        if (request.checkNotModified(etag)) return null; // 304 without loading the user
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(userService.getPublicUserProfile(id));
     }
 }
\ No newline at end of file
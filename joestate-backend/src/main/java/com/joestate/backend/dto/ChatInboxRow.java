@@ -0,0 +1,37 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// One inbox line straight from chat_threads + its property and both participants (JPQL constructor
+// expression). The preview and unread counters are the denormalized columns, no messages are read.
+@Getter
+@AllArgsConstructor
+public class ChatInboxRow {
+    private Long threadId;
+    private Long propertyId;
+    private String propertyTitle;
+    private Property.Status propertyStatus;
+    private Double propertyPrice;
+    private String propertyImageUrl;
+
+    private Long inquirerId;
+    private String inquirerEmail;
+    private String inquirerFirstName;
+    private String inquirerLastName;
+    private String inquirerAvatarUrl;
+
+    private Long ownerId;
+    private String ownerEmail;
+    private String ownerFirstName;
+    private String ownerLastName;
+    private String ownerAvatarUrl;
+
+    private String lastMessagePreview;
+    private LocalDateTime lastUpdatedAt;
+    private int inquirerUnreadCount;
+    private int ownerUnreadCount;
+}
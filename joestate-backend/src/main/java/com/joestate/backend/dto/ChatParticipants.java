@@ -0,0 +1,30 @@
+package com.joestate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// The two sides of a chat thread (JPQL constructor expression). Never changes once the thread exists,
+// so the live message path can keep it in memory instead of loading the thread on every message.
+@Getter
+@AllArgsConstructor
+public class ChatParticipants {
+    private Long threadId;
+    private Long propertyId;
+    private Long inquirerId;
+    private String inquirerEmail;
+    private Long ownerId;
+    private String ownerEmail;
+
+    public boolean includes(Long userId) {
+        return inquirerId.equals(userId) || ownerId.equals(userId);
+    }
+
+    public boolean isInquirer(Long userId) {
+        return inquirerId.equals(userId);
+    }
+
+    // The email of whoever is on the other side (for their personal /topic/user channel)
+    public String otherEmail(Long userId) {
+        return isInquirer(userId) ? ownerEmail : inquirerEmail;
+    }
+}
@@ -0,0 +1,16 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Who is opening a live chat connection (JPQL constructor expression, no User entity loaded)
+@Getter
+@AllArgsConstructor
+public class ChatSender {
+    private Long userId;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private User.BanStatus banStatus;
+}
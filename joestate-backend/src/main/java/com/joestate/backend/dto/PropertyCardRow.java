@@ -0,0 +1,32 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// One row of the card projection query (JPQL constructor expression), so the description
+// TEXT column and the rest of the owner row are never read from the database.
+@Getter
+@AllArgsConstructor
+public class PropertyCardRow {
+    private Long propertyId;
+    private Long ownerId;
+    private String ownerFirstName;
+    private String ownerLastName;
+    private String ownerProfilePictureUrl;
+    private String title;
+    private Double price;
+    private Double area;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    private Integer roomCount;
+    private Integer bathCount;
+    private Property.PropertyType type;
+    private Property.Purpose purpose;
+    private Property.Status status;
+    private Property.RentFrequency rentFrequency;
+    private LocalDateTime datePosted;
+}
@@ -12,11 +12,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.web.multipart.MultipartFile;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class PropertyDTO {
@@ -33,6 +35,12 @@ public class PropertyDTO {
     @Min(value = 1, message = "Area must be at least 1 square meter")
     private Double area;
     private String location;
+    @DecimalMin(value = "-90", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    @DecimalMin(value = "-180", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180", message = "Longitude must be between -180 and 180")
+    private Double longitude;
     private Integer roomCount;
     private Integer bathCount;
     private Boolean isFavorite;
@@ -45,6 +53,9 @@ public class PropertyDTO {
     private String ownerProfilePictureUrl;
 
     private List<String> imageUrls;
+    private List<String> thumbnailUrls; // same order as imageUrls; falls back to the original until it's processed
+    private List<String> cardUrls;      // 640px, for cards (same order and fallback)
+    private List<String> fullUrls;      // 1600px, for the detail page gallery (same order and fallback)
     private List<String> existingImageUrls;
 
     @JsonIgnore
@@ -0,0 +1,39 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.Property.PropertyType;
+import com.joestate.backend.entities.Property.Purpose;
+import com.joestate.backend.entities.Property.RentFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Counts for the search sidebar. Each categorical facet ignores its own filter
+// (so picking VILLA still shows how many APARTMENTs there are), but respects all the others.
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyFacetsDTO {
+    private long total; // same number the search itself would return
+
+    private Map<PropertyType, Long> types;
+    private Map<Purpose, Long> purposes;
+    private Map<RentFrequency, Long> rentFrequencies;
+    private Map<String, Long> bedrooms; // "0".."4" and "5+"
+
+    private List<HistogramBucket> priceHistogram;
+    private List<HistogramBucket> areaHistogram;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class HistogramBucket {
+        private double from;
+        private double to; // inclusive for the last bucket
+        private long count;
+    }
+}
@@ -0,0 +1,32 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// The columns the in-memory search index keeps per listing (JPQL constructor expression),
+// so a rebuild reads neither the description TEXT column nor the owners.
+@Getter
+@AllArgsConstructor
+public class PropertyIndexRow {
+    private Long propertyId;
+    private Property.PropertyType type;
+    private Property.Purpose purpose;
+    private Property.RentFrequency rentFrequency;
+    private Double price;
+    private Double area;
+    private Integer roomCount;
+    private Integer bathCount;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime datePosted;
+
+    public static PropertyIndexRow of(Property p) {
+        return new PropertyIndexRow(p.getPropertyId(), p.getType(), p.getPurpose(), p.getRentFrequency(),
+                p.getPrice(), p.getArea(), p.getRoomCount(), p.getBathCount(), p.getLocation(),
+                p.getLatitude(), p.getLongitude(), p.getDatePosted());
+    }
+}
@@ -0,0 +1,19 @@
+package com.joestate.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyPageDTO {
+    private List<PropertyDTO> items;
+
+    // Pass this back as ?cursor= to get the next page. Null means there are no more results.
+    private String nextCursor;
+}
@@ -0,0 +1,92 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.search.GeoGrid;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Locale;
+
+// The filter set accepted by /api/properties/search.
+// Every field is optional: null means "don't filter on this".
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertySearchCriteria {
+    private String location;
+    private Property.Purpose purpose;
+    private Property.PropertyType type;
+    private Property.RentFrequency rentFrequency;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer minArea;
+    private Integer maxArea;
+    private Integer beds;
+    private Integer baths;
+
+    // Free-text query over title + description (ranked with BM25)
+    private String q;
+
+    // Radius search: everything within radiusKm of (lat, lng)
+    private Double lat;
+    private Double lng;
+    private Double radiusKm;
+
+    // Map viewport search
+    private Double minLat;
+    private Double maxLat;
+    private Double minLng;
+    private Double maxLng;
+
+    public boolean hasTextQuery() {
+        return q != null && !q.isBlank();
+    }
+
+    public boolean hasRadius() {
+        return lat != null && lng != null && radiusKm != null;
+    }
+
+    public boolean hasBoundingBox() {
+        return minLat != null && maxLat != null && minLng != null && maxLng != null;
+    }
+
+    public boolean hasGeoFilter() {
+        return hasRadius() || hasBoundingBox();
+    }
+
+    // Copy with case / whitespace differences folded away, so equal searches make equal cache keys
+    public PropertySearchCriteria normalized() {
+        return toBuilder()
+                .location(location != null ? location.toLowerCase(Locale.ROOT) : null)
+                .q(hasTextQuery() ? q.trim().toLowerCase(Locale.ROOT) : null)
+                .build();
+    }
+
+    // Checks a single listing against the structured filters, with the same NULL semantics as the search.
+    // The free-text q is NOT checked here (that needs the text index), so callers must treat q as "maybe".
+    public boolean matches(Property p) {
+        if (p.getStatus() != Property.Status.ACTIVE) return false;
+        if (purpose != null && purpose != p.getPurpose()) return false;
+        if (type != null && type != p.getType()) return false;
+        if (rentFrequency != null && rentFrequency != p.getRentFrequency()) return false;
+        if (location != null && (p.getLocation() == null
+                || !p.getLocation().toLowerCase(Locale.ROOT).contains(location.toLowerCase(Locale.ROOT)))) return false;
+        if (minPrice != null && (p.getPrice() == null || p.getPrice() < minPrice)) return false;
+        if (maxPrice != null && (p.getPrice() == null || p.getPrice() > maxPrice)) return false;
+        if (minArea != null && (p.getArea() == null || p.getArea() < minArea)) return false;
+        if (maxArea != null && (p.getArea() == null || p.getArea() > maxArea)) return false;
+        if (beds != null && (p.getRoomCount() == null || p.getRoomCount() < beds)) return false;
+        if (baths != null && (p.getBathCount() == null || p.getBathCount() < baths)) return false;
+
+        if (hasGeoFilter()) {
+            if (p.getLatitude() == null || p.getLongitude() == null) return false;
+            if (hasBoundingBox() && (p.getLatitude() < minLat || p.getLatitude() > maxLat
+                    || p.getLongitude() < minLng || p.getLongitude() > maxLng)) return false;
+            if (hasRadius() && GeoGrid.distanceKm(lat, lng, p.getLatitude(), p.getLongitude()) > radiusKm) return false;
+        }
+        return true;
+    }
+}
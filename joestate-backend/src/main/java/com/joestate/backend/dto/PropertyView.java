@@ -0,0 +1,19 @@
+package com.joestate.backend.dto;
+
+import java.util.Locale;
+
+// How much of a listing the list endpoints return (?view=card|full).
+// CARD is a slim projection for result cards: no description, no owner phone, only the main image.
+public enum PropertyView {
+    CARD,
+    FULL;
+
+    public static PropertyView parse(String value) {
+        if (value == null || value.isBlank()) return FULL;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown view '" + value + "'. Use 'card' or 'full'.");
+        }
+    }
+}
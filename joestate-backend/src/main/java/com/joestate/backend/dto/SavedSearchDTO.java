@@ -0,0 +1,47 @@
+package com.joestate.backend.dto;
+
+import com.joestate.backend.entities.Property;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SavedSearchDTO {
+    private Long savedSearchId;
+
+    @NotBlank(message = "Please give this search a name")
+    @Size(max = 100, message = "Name cannot exceed 100 characters")
+    private String name;
+
+    private String location;
+    private Property.Purpose purpose;
+    private Property.PropertyType type;
+    private Property.RentFrequency rentFrequency;
+
+    @PositiveOrZero(message = "Price cannot be negative")
+    private Double minPrice;
+    @PositiveOrZero(message = "Price cannot be negative")
+    private Double maxPrice;
+
+    @Min(value = 0, message = "Area cannot be negative")
+    private Integer minArea;
+    @Min(value = 0, message = "Area cannot be negative")
+    private Integer maxArea;
+
+    @Min(value = 0, message = "Bedrooms cannot be negative")
+    private Integer beds;
+    @Min(value = 0, message = "Bathrooms cannot be negative")
+    private Integer baths;
+
+    private LocalDateTime createdAt;
+}
@@ -6,7 +6,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "chat_threads")
+@Table(name = "chat_threads", indexes = {
+        @Index(name = "idx_threads_inquirer_updated", columnList = "inquirer_id, lastUpdatedAt"),
+        @Index(name = "idx_threads_owner_updated", columnList = "owner_id, lastUpdatedAt")
+})
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,6 +39,21 @@ public class ChatThread {
     // We use this to sort the inbox so the most recent chats jump to the top!
     private LocalDateTime lastUpdatedAt;
 
+    // --- Inbox summary: kept up to date by ChatService, so the inbox never has to read messages ---
+
+    // Copy of property.owner (it never changes), so a user's threads are found without joining properties
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    private String lastMessagePreview; // first 255 chars of the newest message
+    private Long lastSenderId;
+
+    // Unread messages for each side (i.e. sent by the other one)
+    @Builder.Default
+    private int inquirerUnreadCount = 0;
+    @Builder.Default
+    private int ownerUnreadCount = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,30 @@
+package com.joestate.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One stored file in the content-addressed media store. The key is the SHA-256 of the bytes plus the
+// extension, so identical uploads share a row; refCount = PropertyImage rows + avatars pointing at it.
+@Entity
+@Table(name = "media_blobs")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+
+    @Id
+    @Column(length = 80)
+    private String fileKey;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    private long sizeBytes;
+
+    private LocalDateTime createdAt;
+
+    // Bumped on every new reference; the orphan collector leaves recently referenced blobs alone
+    private LocalDateTime lastReferencedAt;
+}
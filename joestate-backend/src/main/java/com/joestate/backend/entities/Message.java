@@ -5,7 +5,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = @Index(name = "idx_messages_thread_id", columnList = "thread_id, messageId"))
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,8 +16,8 @@ public class Message {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long messageId;
 
-    // Which room does this message belong to?
-    @ManyToOne
+    // Which room does this message belong to? (LAZY: history pages never need the thread row)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "thread_id", nullable = false)
     private ChatThread thread;
 
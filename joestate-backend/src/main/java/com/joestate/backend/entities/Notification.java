@@ -30,7 +30,8 @@ public class Notification {
 
     public enum NotificationType {
         FAVORITE,
-        SYSTEM_ALERT
+        SYSTEM_ALERT,
+        SAVED_SEARCH_MATCH
     }
 
     @Enumerated(EnumType.STRING)
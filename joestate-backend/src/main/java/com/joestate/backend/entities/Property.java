@@ -2,11 +2,15 @@ package com.joestate.backend.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.util.List;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "properties")
+@Table(name = "properties", indexes = {
+        // Lets the DB answer bounding-box lookups without a full scan (the app itself searches the in-memory grid)
+        @Index(name = "idx_properties_lat_lng", columnList = "latitude, longitude")
+})
 @Getter @Setter
 public class Property {
     @Id
@@ -23,6 +27,10 @@ public class Property {
     private Double price;
     private Double area;
     private String location;
+
+    // WGS84 coordinates (optional: older listings only have the free-text location)
+    private Double latitude;
+    private Double longitude;
     private Integer roomCount;
     private Integer bathCount;
 
@@ -41,14 +49,25 @@ public class Property {
     @Column(name = "date_posted")
     private LocalDateTime datePosted;
 
+    // Bumped on every write; feeds the ETag of the listing's pages
+    private LocalDateTime lastModifiedAt;
+
     @PrePersist
     protected void onCreate() {
         datePosted = LocalDateTime.now();
+        lastModifiedAt = datePosted;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        lastModifiedAt = LocalDateTime.now();
     }
 
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Favorite> favoritedBy;
 
+    // Safety net for paths that don't fetch images up front: loads them for up to 50 properties per query
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PropertyImage> images;
 
@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "property_images")
+@Table(name = "property_images", indexes = @Index(name = "idx_property_images_url", columnList = "imageUrl"))
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,4 +22,9 @@ public class PropertyImage {
     private String imageUrl;
 
     private boolean isMain = false;
-}
\ No newline at end of file
+
+    // Renditions written by ImageRenditionService (null until processed; equal to imageUrl if it couldn't be decoded)
+    private String thumbUrl;
+    private String cardUrl;
+    private String fullUrl;
+}
@@ -0,0 +1,53 @@
+package com.joestate.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A filter set a buyer asked us to watch. Same fields as PropertyRepository.searchProperties;
+// new listings that match it are pushed to the owner as SAVED_SEARCH_MATCH notifications.
+@Entity
+@Table(name = "saved_searches")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long savedSearchId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Label shown in the notification, e.g. "Villas in Abdoun"
+    private String name;
+
+    private String location;
+
+    @Enumerated(EnumType.STRING)
+    private Property.Purpose purpose;
+
+    @Enumerated(EnumType.STRING)
+    private Property.PropertyType type;
+
+    @Enumerated(EnumType.STRING)
+    private Property.RentFrequency rentFrequency;
+
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer minArea;
+    private Integer maxArea;
+    private Integer beds;
+    private Integer baths;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
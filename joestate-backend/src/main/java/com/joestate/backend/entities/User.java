@@ -6,7 +6,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_profile_picture", columnList = "profilePictureUrl"))
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,9 +49,18 @@ public class User {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private List<Favorite> favorites;
 
+    // Bumped on every write; feeds the ETag of the profile (and of listings showing this owner)
+    private LocalDateTime lastModifiedAt;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
+        this.lastModifiedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.lastModifiedAt = LocalDateTime.now();
     }
 
     private String verificationCode;
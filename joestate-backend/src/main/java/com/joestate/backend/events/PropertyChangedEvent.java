@@ -0,0 +1,47 @@
+package com.joestate.backend.events;
+
+import com.joestate.backend.entities.Property;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published whenever a listing is written, so the in-memory read models can follow the database.
+// Listeners run AFTER the transaction commits, so they never see a change that was rolled back.
+@Getter
+@AllArgsConstructor
+public class PropertyChangedEvent {
+
+    private final Long propertyId;
+
+    // The saved entity (null for DELETED). Only its scalar columns should be read by listeners.
+    private final Property property;
+
+    private final ChangeType type;
+
+    // Only set for STATUS_CHANGED: what the status was before this write
+    private final Property.Status previousStatus;
+
+    public enum ChangeType { CREATED, UPDATED, STATUS_CHANGED, DELETED }
+
+    public static PropertyChangedEvent created(Property p) {
+        return new PropertyChangedEvent(p.getPropertyId(), p, ChangeType.CREATED, null);
+    }
+
+    public static PropertyChangedEvent updated(Property p) {
+        return new PropertyChangedEvent(p.getPropertyId(), p, ChangeType.UPDATED, null);
+    }
+
+    public static PropertyChangedEvent statusChanged(Property p, Property.Status previousStatus) {
+        return new PropertyChangedEvent(p.getPropertyId(), p, ChangeType.STATUS_CHANGED, previousStatus);
+    }
+
+    public static PropertyChangedEvent deleted(Long propertyId) {
+        return new PropertyChangedEvent(propertyId, null, ChangeType.DELETED, null);
+    }
+
+    // True when the listing just went live: a new ACTIVE listing, or one coming back to ACTIVE
+    public boolean isNewlyActive() {
+        if (property == null || property.getStatus() != Property.Status.ACTIVE) return false;
+        return type == ChangeType.CREATED
+                || (type == ChangeType.STATUS_CHANGED && previousStatus != Property.Status.ACTIVE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.joestate.backend.events;
+
+import com.joestate.backend.entities.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when an admin changes a user's ban status, so state cached per connection (live chat sessions)
+// follows it. Listeners run after the transaction commits.
+@Getter
+@AllArgsConstructor
+public class UserBanChangedEvent {
+
+    private final Long userId;
+
+    private final User.BanStatus banStatus;
+}
@@ -0,0 +1,13 @@
+package com.joestate.backend.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published when a user changes what is shown about them on their listings (name, phone, avatar),
+// so copies kept in memory (the featured snapshot) are refreshed. Listeners run after the transaction commits.
+@Getter
+@AllArgsConstructor
+public class UserProfileChangedEvent {
+
+    private final Long userId;
+}
@@ -1,17 +1,24 @@
 package com.joestate.backend.exception;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.servlet.autoconfigure.MultipartProperties;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.HashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MultipartProperties multipartProperties;
+
     // 1. Handle "Email Already Exists" or "User not found"
     // This turns the 500 error into a 400 error so React can read the message
     @ExceptionHandler(RuntimeException.class)
@@ -33,4 +40,20 @@ public class GlobalExceptionHandler {
         response.put("message", errorMessage);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
-}
\ No newline at end of file
+
+    // 3. Handle uploads over spring.servlet.multipart.max-file-size / max-request-size
+    // Rejected by the container before any controller runs, so it gets a readable message here
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<Map<String, String>> handleMaxUploadSize(MaxUploadSizeExceededException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Upload is too large. Images can be up to " + format(multipartProperties.getMaxFileSize())
+                + " each, " + format(multipartProperties.getMaxRequestSize()) + " per request.");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    // "15 MB", or "512 KB" below a megabyte
+    private static String format(DataSize size) {
+        if (size == null || size.isNegative()) return "any size";
+        return size.toMegabytes() > 0 ? size.toMegabytes() + " MB" : size.toKilobytes() + " KB";
+    }
+}
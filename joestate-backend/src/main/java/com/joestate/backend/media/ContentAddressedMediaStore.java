@@ -0,0 +1,297 @@
+package com.joestate.backend.media;
+
+import com.joestate.backend.entities.MediaBlob;
+import com.joestate.backend.repositories.MediaBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link MediaStore} keyed by the SHA-256 of the content: an agent posting the same photo on ten
+ * listings stores it once. References are counted in {@code media_blobs}, so a file is only deleted
+ * when the last PropertyImage / avatar pointing at it goes away.
+ *
+ * The hash is computed while the upload streams to a temp file, so nothing is buffered in memory.
+ * Files are still served as-is from /uploads/, hence the extension stays part of the key.
+ *
+ * On disk files are sharded by name prefix, {@code uploads/ab/cd/abcd1234....jpg}, so no directory
+ * grows past a few thousand entries. Files from the old flat layout still resolve, and are moved
+ * into their shard in the background by {@link MediaLayoutMigrator}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentAddressedMediaStore implements MediaStore {
+
+    private static final String UPLOAD_DIR = "uploads/";
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
+    private final MediaBlobRepository blobRepository;
+
+    // Striped locks: a store and a release of the same key must not interleave their DB and file steps
+    private final Object[] locks = newLocks(64);
+
+    // ==========================================
+    // 1. STORE
+    // ==========================================
+
+    @Override
+    public String store(InputStream content, String originalFilename) throws IOException {
+        Path root = Paths.get(UPLOAD_DIR);
+        Files.createDirectories(root);
+
+        // Temp files sit in the root (the shard isn't known until the hash is); the migrator skips them
+
+        Path tmp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long size = 0;
+            // Channel transfer in fixed chunks: memory per upload stays at one transfer buffer
+            try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(content, sha256));
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                long n;
+                while ((n = out.transferFrom(in, size, TRANSFER_CHUNK)) > 0) {
+                    size += n;
+                }
+                out.force(true);
+            }
+
+            String key = HexFormat.of().formatHex(sha256.digest()) + extensionOf(originalFilename);
+            Path target = pathForWrite(key);
+
+            // The reference is committed (REQUIRES_NEW) before the lock goes, so a release or purge
+            // of the same key that runs next already counts it
+            synchronized (lockFor(key)) {
+                blobRepository.addReference(key, size);
+                if (Files.exists(target) || Files.exists(root.resolve(key))) {
+                    return key; // duplicate: the bytes are already there
+                }
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException | RuntimeException e) {
+                    blobRepository.release(key);
+                    blobRepository.deleteIfUnreferenced(key);
+                    throw e;
+                }
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // ==========================================
+    // 2. RELEASE
+    // ==========================================
+
+    @Override
+    public void release(String key, Collection<String> derivedFiles) {
+        if (key == null || key.isBlank()) return;
+
+        // Inside a transaction (e.g. replacing an avatar) the reference is only dropped once it commits:
+        // until then the old row still points at the file
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(key, derivedFiles);
+                }
+            });
+        } else {
+            releaseNow(key, derivedFiles);
+        }
+    }
+
+    // Count, row and files all change under the stripe lock, with the row changes already committed
+    @Override
+    public void releaseNow(String key, Collection<String> derivedFiles) {
+        if (key == null || key.isBlank()) return;
+
+        List<String> files = new ArrayList<>();
+        files.add(key);
+        if (derivedFiles != null) {
+            for (String f : derivedFiles) if (f != null && !files.contains(f)) files.add(f);
+        }
+
+        synchronized (lockFor(key)) {
+            if (blobRepository.release(key) == 0) {
+                // No counted reference: a file uploaded before the store existed (one owner per file)
+                if (blobRepository.existsByFileKey(key)) return;
+            } else if (blobRepository.deleteIfUnreferenced(key) == 0) {
+                return; // still used elsewhere
+            }
+            deleteFiles(files);
+        }
+    }
+
+    // Caller holds the stripe lock
+    private void deleteFiles(List<String> files) {
+        for (String file : files) {
+            try {
+                // Both layouts: the file may not have been migrated yet
+                Files.deleteIfExists(shardedPath(file));
+                Files.deleteIfExists(flatPath(file));
+            } catch (IOException e) {
+                log.warn("Could not delete file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    // ==========================================
+    // 3. LAYOUT
+    // ==========================================
+
+    public Path root() {
+        return Paths.get(UPLOAD_DIR);
+    }
+
+    @Override
+    public Path resolve(String name) {
+        Path sharded = shardedPath(name);
+        if (Files.exists(sharded)) return sharded;
+        Path flat = flatPath(name);
+        if (Files.exists(flat)) return flat;
+        return sharded; // not there, or moved by the migrator between the two checks
+    }
+
+    @Override
+    public Path pathForWrite(String name) throws IOException {
+        Path sharded = shardedPath(name);
+        Files.createDirectories(sharded.getParent());
+        return sharded;
+    }
+
+    // Moves up to maxFiles files from the old flat layout into their shard. Returns how many it moved;
+    // 0 means the flat layout is empty. Runs under the same per-name lock as store/release.
+    public int migrateFlatFiles(int maxFiles) throws IOException {
+        Path root = root();
+        if (!Files.isDirectory(root)) return 0;
+
+        List<Path> batch = new ArrayList<>(maxFiles);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (!Files.isRegularFile(entry) || name.endsWith(".tmp") || !MediaStore.isValidName(name)) continue;
+                batch.add(entry);
+                if (batch.size() >= maxFiles) break;
+            }
+        }
+
+        int moved = 0;
+        for (Path flat : batch) {
+            String name = flat.getFileName().toString();
+            synchronized (lockFor(name)) {
+                if (!Files.exists(flat)) continue; // deleted meanwhile
+                Path target = pathForWrite(name);
+                if (Files.exists(target)) {
+                    Files.delete(flat); // same name = same bytes (content-addressed) or a leftover copy
+                } else {
+                    Files.move(flat, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    // Orphan collector: deletes a file nothing references any more, plus its blob row if it has one.
+    // Kept if the file or its blob was touched after the cutoff. Returns the bytes freed, or -1 if kept.
+    public long purgeOrphan(String name, LocalDateTime cutoff) throws IOException {
+        synchronized (lockFor(name)) {
+            MediaBlob blob = blobRepository.findById(name).orElse(null);
+            if (blob != null) {
+                LocalDateTime touched = blob.getLastReferencedAt() != null ? blob.getLastReferencedAt() : blob.getCreatedAt();
+                if (touched != null && touched.isAfter(cutoff)) return -1; // re-used by a fresh upload
+            }
+
+            Path file = resolve(name);
+            if (!Files.isRegularFile(file)) return -1;
+            if (LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault()).isAfter(cutoff)) return -1;
+
+            long size = Files.size(file);
+            // Conditional and committed before the file goes: a reference taken since the read above keeps both
+            if (blob != null && blobRepository.deleteIfNotReferencedSince(name, cutoff) == 0) return -1;
+            Files.deleteIfExists(shardedPath(name));
+            Files.deleteIfExists(flatPath(name));
+            return size;
+        }
+    }
+
+    // Names starting with 4 hex chars (sha256 keys, their renditions, old UUID names) shard on those;
+    // anything else on a hash of the name
+    public static String shardOf(String name) {
+        String prefix = isHex(name, 4) ? name.substring(0, 4) : String.format("%08x", name.hashCode()).substring(0, 4);
+        return prefix.substring(0, 2) + "/" + prefix.substring(2, 4);
+    }
+
+    private static Path shardedPath(String name) {
+        return Paths.get(UPLOAD_DIR, shardOf(name), name);
+    }
+
+    private static Path flatPath(String name) {
+        return Paths.get(UPLOAD_DIR, name);
+    }
+
+
+    // ==========================================
+    // 4. HELPERS
+    // ==========================================
+
+    // Lower-case, alphanumeric, at most 5 chars; "photo.JPEG" -> ".jpg"
+    static String extensionOf(String filename) {
+        if (filename == null) return "";
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) return "";
+        String ext = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (ext.length() > 5 || !ext.chars().allMatch(Character::isLetterOrDigit)) return "";
+        return "." + (ext.equals("jpeg") ? "jpg" : ext);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM ships SHA-256
+        }
+    }
+
+    // A blob and its renditions ("<sha256>_thumb.jpg") share a stripe, so moving or deleting them can't interleave
+    private Object lockFor(String name) {
+        String stripe = isHex(name, 64) ? name.substring(0, 64) : name;
+        return locks[Math.floorMod(stripe.hashCode(), locks.length)];
+    }
+
+    static boolean isHex(String s, int prefixLength) {
+        if (s.length() < prefixLength) return false;
+        for (int i = 0; i < prefixLength; i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+
+    private static Object[] newLocks(int n) {
+        Object[] result = new Object[n];
+        for (int i = 0; i < n; i++) result[i] = new Object();
+        return result;
+    }
+}
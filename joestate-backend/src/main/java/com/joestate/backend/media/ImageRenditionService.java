@@ -0,0 +1,416 @@
+package com.joestate.backend.media;
+
+import com.joestate.backend.entities.PropertyImage;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.repositories.PropertyImageRepository;
+import com.joestate.backend.repositories.PropertyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background pipeline that turns each uploaded original into thumb / card / full JPEG renditions.
+ *
+ * The request thread only stores the original and enqueues the image ID. A small, bounded pool then
+ * decodes the original once, turns it upright (phones store the rotation as an EXIF tag, not in the
+ * pixels), scales it down to each width and re-encodes it. Re-encoding from pixels drops EXIF/GPS and
+ * any other metadata. Until an image is processed (or if it can't be decoded), readers fall back to
+ * the original file. Originals are never decoded at full size: the header is checked against a pixel
+ * cap first, and large images are subsampled while they are read.
+ */
+@Slf4j
+@Service
+public class ImageRenditionService {
+
+    public enum Rendition {
+        THUMB(320), CARD(640), FULL(1600);
+
+        final int maxWidth;
+
+        Rendition(int maxWidth) {
+            this.maxWidth = maxWidth;
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // Bigger originals aren't decoded at all: a tiny compressed file can declare a huge canvas
+    static final long MAX_PIXELS = 40_000_000L;
+    // Decodes are subsampled so neither side is more than about twice the largest rendition
+    static final int MAX_DECODED_SIDE = 2 * Rendition.FULL.maxWidth;
+
+    private final PropertyImageRepository propertyImageRepository;
+    private final PropertyRepository propertyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MediaStore mediaStore;
+    private final ThreadPoolExecutor executor;
+
+    public ImageRenditionService(
+            PropertyImageRepository propertyImageRepository,
+            PropertyRepository propertyRepository,
+            ApplicationEventPublisher eventPublisher,
+            MediaStore mediaStore,
+            @Value("${joestate.images.workers:2}") int workers,
+            @Value("${joestate.images.queue-capacity:500}") int queueCapacity
+    ) {
+        this.propertyImageRepository = propertyImageRepository;
+        this.propertyRepository = propertyRepository;
+        this.eventPublisher = eventPublisher;
+        this.mediaStore = mediaStore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "image-renditions-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    // ==========================================
+    // 1. ENQUEUE (request thread)
+    // ==========================================
+
+    // Call once the PropertyImage rows are committed. Never blocks: if the queue is full the images
+    // simply stay on their originals until the next startup sweep picks them up.
+    public void submit(Long propertyId, List<Long> imageIds) {
+        if (imageIds.isEmpty()) return;
+        try {
+            executor.execute(() -> processAll(propertyId, imageIds));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image pipeline is full, property {} will keep its originals for now", propertyId);
+        }
+    }
+
+    // Catch up on anything left unprocessed: older uploads, a full queue, or a restart mid-queue.
+    // Runs as a single pipeline task so it never floods the queue. Goes through the same per-listing path
+    // as new uploads, so the listings it fixes get their lastModified bumped and a change event.
+    @EventListener(ApplicationReadyEvent.class)
+    public void processPendingOnStartup() {
+        try {
+            executor.execute(() -> {
+                long afterId = 0;
+                List<Object[]> pending;
+                while (!(pending = propertyImageRepository.findPendingRenditions(afterId, PageRequest.of(0, 100))).isEmpty()) {
+                    Map<Long, List<Long>> imagesByProperty = new LinkedHashMap<>();
+                    for (Object[] row : pending) {
+                        imagesByProperty.computeIfAbsent((Long) row[1], id -> new ArrayList<>()).add((Long) row[0]);
+                    }
+                    imagesByProperty.forEach(this::processAll);
+                    afterId = (Long) pending.get(pending.size() - 1)[0];
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Image pipeline is full, skipping the startup sweep");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==========================================
+    // 2. PROCESS (pipeline thread)
+    // ==========================================
+
+    private void processAll(Long propertyId, List<Long> imageIds) {
+        boolean changed = false;
+        for (Long imageId : imageIds) {
+            if (processOne(imageId)) changed = true;
+        }
+        if (!changed) return;
+
+        // Let the read models (featured snapshot, caches, ETags) pick up the new URLs
+        propertyRepository.touchLastModified(propertyId, LocalDateTime.now());
+        propertyRepository.findById(propertyId)
+                .ifPresent(p -> eventPublisher.publishEvent(PropertyChangedEvent.updated(p)));
+    }
+
+    // Returns true if the renditions were written and recorded
+    private boolean processOne(Long imageId) {
+        PropertyImage image = propertyImageRepository.findById(imageId).orElse(null);
+        if (image == null || image.getThumbUrl() != null) return false;
+
+        Path original = mediaStore.resolve(image.getImageUrl());
+        String base = stripExtension(image.getImageUrl());
+
+        // Same content already processed for another listing (the store dedupes by hash): reuse its renditions
+        String[] existing = renditionNames(base);
+        if (Arrays.stream(existing).allMatch(name -> Files.exists(mediaStore.resolve(name)))) {
+            return propertyImageRepository.setRenditions(imageId, existing[Rendition.THUMB.ordinal()],
+                    existing[Rendition.CARD.ordinal()], existing[Rendition.FULL.ordinal()]) > 0;
+        }
+
+        List<Path> written = new ArrayList<>();
+        try {
+            BufferedImage decoded = decode(original);
+            if (decoded == null) {
+                // Not a format ImageIO can decode (e.g. HEIC / WebP), or too big: keep serving the original
+                markUnprocessable(image);
+                return false;
+            }
+            // The renditions carry no EXIF, so the orientation tag has to be applied to the pixels now
+            BufferedImage source = applyOrientation(decoded, exifOrientation(original));
+
+            String[] names = renditionNames(base);
+            for (Rendition r : Rendition.values()) {
+                Path target = mediaStore.pathForWrite(names[r.ordinal()]);
+                writeJpeg(scaleToWidth(source, r.maxWidth), target);
+                written.add(target);
+            }
+
+            int updated = propertyImageRepository.setRenditions(imageId, names[Rendition.THUMB.ordinal()],
+                    names[Rendition.CARD.ordinal()], names[Rendition.FULL.ordinal()]);
+
+            // The image (or the whole listing) was deleted while we were working.
+            // (Renditions are shared between copies of the same blob, so only drop them if the blob is gone too.)
+            if (updated == 0) {
+                if (Files.exists(original)) return false;
+                deleteQuietly(written);
+                return false;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not create renditions for {}: {}", image.getImageUrl(), e.getMessage());
+            deleteQuietly(written);
+            markUnprocessable(image);
+            return false;
+        }
+    }
+
+    // Renditions point at the original, so the sweep won't retry it forever and readers need no special case
+    private void markUnprocessable(PropertyImage image) {
+        String original = image.getImageUrl();
+        propertyImageRepository.setRenditions(image.getImageId(), original, original, original);
+    }
+
+    // ==========================================
+    // 3. IMAGE HELPERS
+    // ==========================================
+
+    // Reads the header first: null if no reader handles the format or the canvas is over MAX_PIXELS.
+    // Otherwise only every n-th pixel is decoded, so memory is bounded by MAX_DECODED_SIDE, not the file.
+    static BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0), height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.warn("Not creating renditions for {}: {}x{} is over the {} pixel limit", file.getFileName(), width, height, MAX_PIXELS);
+                    return null;
+                }
+
+                // Longest side, since an EXIF rotation can turn the height into the width
+                int step = Math.max(1, (Math.max(width, height) + MAX_DECODED_SIDE - 1) / MAX_DECODED_SIDE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Downscale only (never enlarge), halving step by step so big reductions stay sharp
+    static BufferedImage scaleToWidth(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = toRgb(source);
+        int w = current.getWidth(), h = current.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    // EXIF orientation of a JPEG (1 = upright, 2-8 = mirrored and/or rotated). 1 if there is none or it can't be read.
+    static int exifOrientation(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) return 1; // not a JPEG
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // EXIF (APP1) comes before the pixel data; stop at start-of-scan or anything that isn't a marker
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) return 1;
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) return 1;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                int orientation = orientationTag(segment);
+                if (orientation > 0) return orientation;
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    // Reads tag 0x0112 from IFD0 of an APP1 segment ("Exif\0\0" + TIFF header). 0 if it isn't there.
+    private static int orientationTag(byte[] s) {
+        if (s.length < 14 || s[0] != 'E' || s[1] != 'x' || s[2] != 'i' || s[3] != 'f' || s[4] != 0 || s[5] != 0) return 0;
+        int tiff = 6;
+        boolean littleEndian = s[tiff] == 'I' && s[tiff + 1] == 'I';
+        if (!littleEndian && !(s[tiff] == 'M' && s[tiff + 1] == 'M')) return 0;
+
+        int ifd = tiff + readInt(s, tiff + 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > s.length) return 0;
+        int entries = readShort(s, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > s.length) return 0;
+            if (readShort(s, entry, littleEndian) == 0x0112) {
+                int value = readShort(s, entry + 8, littleEndian); // SHORT, stored in the first half of the value field
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] s, int at, boolean littleEndian) {
+        int a = s[at] & 0xFF, b = s[at + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static int readInt(byte[] s, int at, boolean littleEndian) {
+        int hi = readShort(s, littleEndian ? at + 2 : at, littleEndian);
+        int lo = readShort(s, littleEndian ? at : at + 2, littleEndian);
+        return (hi << 16) | lo;
+    }
+
+    // Redraws the image the way the EXIF orientation says it should be displayed
+    static BufferedImage applyOrientation(BufferedImage source, int orientation) {
+        if (orientation < 2 || orientation > 8) return source;
+        int w = source.getWidth(), h = source.getHeight();
+
+        // (m00, m10, m01, m11, m02, m12): x' = m00*x + m01*y + m02, y' = m10*x + m11*y + m12
+        AffineTransform t;
+        switch (orientation) {
+            case 2: t = new AffineTransform(-1, 0, 0, 1, w, 0); break;   // mirrored
+            case 3: t = new AffineTransform(-1, 0, 0, -1, w, h); break;  // upside down
+            case 4: t = new AffineTransform(1, 0, 0, -1, 0, h); break;   // mirrored vertically
+            case 5: t = new AffineTransform(0, 1, 1, 0, 0, 0); break;    // transposed
+            case 6: t = new AffineTransform(0, 1, -1, 0, h, 0); break;   // rotate 90 clockwise
+            case 7: t = new AffineTransform(0, -1, -1, 0, h, w); break;  // transversed
+            default: t = new AffineTransform(0, -1, 1, 0, 0, w); break;  // 8: rotate 90 counter-clockwise
+        }
+
+        boolean swap = orientation >= 5;
+        BufferedImage rgb = toRgb(source);
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = upright.createGraphics();
+        g.drawImage(rgb, t, null);
+        g.dispose();
+        return upright;
+    }
+
+    // JPEG has no alpha: flatten transparent PNGs onto white instead of black
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) return source;
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    // Written to a temp file and moved into place, so a half-written rendition is never served
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String[] renditionNames(String base) {
+        String[] names = new String[Rendition.values().length];
+        for (Rendition r : Rendition.values()) names[r.ordinal()] = base + "_" + r.name().toLowerCase() + ".jpg";
+        return names;
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private static void deleteQuietly(List<Path> files) {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    // Files derived from an image's blob (not the original itself); they go when the blob goes
+    public static List<String> renditionFiles(PropertyImage image) {
+        List<String> files = new ArrayList<>();
+        for (String f : new String[]{image.getThumbUrl(), image.getCardUrl(), image.getFullUrl()}) {
+            if (f != null && !f.equals(image.getImageUrl()) && !files.contains(f)) files.add(f);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,50 @@
+package com.joestate.backend.media;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Moves files from the old flat uploads/ directory into the sharded layout, a batch at a time.
+ *
+ * URLs don't change (/uploads/<name> resolves in either layout), so this can run while the site is
+ * live. Once a pass finds nothing left it stops scanning until the next restart.
+ */
+@Slf4j
+@Component
+public class MediaLayoutMigrator {
+
+    private final ContentAddressedMediaStore mediaStore;
+    private final int batchSize;
+
+    private volatile boolean done = false;
+
+    public MediaLayoutMigrator(
+            ContentAddressedMediaStore mediaStore,
+            @Value("${joestate.media.migration.batch-size:500}") int batchSize
+    ) {
+        this.mediaStore = mediaStore;
+        this.batchSize = batchSize;
+    }
+
+    // Fixed delay between batches keeps the disk load of the migration low
+    @Scheduled(initialDelayString = "${joestate.media.migration.initial-delay-ms:30000}",
+            fixedDelayString = "${joestate.media.migration.delay-ms:10000}")
+    public void migrateBatch() {
+        if (done) return;
+        try {
+            int moved = mediaStore.migrateFlatFiles(batchSize);
+            if (moved == 0) {
+                done = true;
+                log.info("Uploads layout migration finished");
+            } else {
+                log.info("Moved {} uploads into the sharded layout", moved);
+            }
+        } catch (IOException e) {
+            log.warn("Uploads layout migration failed, will retry: {}", e.getMessage());
+        }
+    }
+}
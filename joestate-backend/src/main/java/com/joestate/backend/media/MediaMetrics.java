@@ -0,0 +1,53 @@
+package com.joestate.backend.media;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for the /uploads serving path, shown on the admin dashboard. LongAdder so the hot path never contends.
+@Component
+public class MediaMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder fullResponses = new LongAdder();
+    private final LongAdder partialResponses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder rangeNotSatisfiable = new LongAdder();
+    private final LongAdder sendfile = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(int status, long bytes, boolean viaSendfile, long nanos) {
+        requests.increment();
+        totalNanos.add(nanos);
+        bytesServed.add(bytes);
+        if (viaSendfile) sendfile.increment();
+        switch (status) {
+            case 200 -> fullResponses.increment();
+            case 206 -> partialResponses.increment();
+            case 304 -> notModified.increment();
+            case 404 -> notFound.increment();
+            case 416 -> rangeNotSatisfiable.increment();
+            default -> { }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long count = requests.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", count);
+        result.put("ok", fullResponses.sum());
+        result.put("partial", partialResponses.sum());
+        result.put("notModified", notModified.sum());
+        result.put("notFound", notFound.sum());
+        result.put("rangeNotSatisfiable", rangeNotSatisfiable.sum());
+        result.put("sendfile", sendfile.sum());
+        result.put("bytesServed", bytesServed.sum());
+        // Time spent on the request thread; with sendfile the transfer itself happens off it
+        result.put("avgMicros", count == 0 ? 0 : totalNanos.sum() / count / 1000);
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package com.joestate.backend.media;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Where uploaded images live. Callers only keep the returned key (PropertyImage.imageUrl,
+ * User.profilePictureUrl) and must hand every key back through {@link #release} once they stop using it.
+ */
+public interface MediaStore {
+
+    // Stores the stream and takes one reference on the result. Identical content gets the same key.
+    // The reference is committed right away, not with the caller's transaction (MediaUploader hands it
+    // back if that transaction rolls back).
+    String store(InputStream content, String originalFilename) throws IOException;
+
+    // Drops one reference once the caller's transaction commits (right away if there is none), so a
+    // rolled-back delete leaves the file alone. When it was the last one, the blob is deleted along
+    // with the given derived files (e.g. its renditions).
+    void release(String key, Collection<String> derivedFiles);
+
+    // Same, but right away whatever the caller's transaction does: for references that never got used
+    void releaseNow(String key, Collection<String> derivedFiles);
+
+    // Where a stored file (or one of its derived files) currently is. Works for files in the old layout too.
+    Path resolve(String key);
+
+    // Where a new derived file with this name should be written (parent directories exist)
+    Path pathForWrite(String name) throws IOException;
+
+    // True if the name is something the store could have produced (no path separators, no "..")
+    static boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && !name.startsWith(".")
+                && name.indexOf('/') < 0 && name.indexOf('\\') < 0;
+    }
+}
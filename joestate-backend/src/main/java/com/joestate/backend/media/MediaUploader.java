@@ -0,0 +1,140 @@
+package com.joestate.backend.media;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request-side upload path: streams the parts into the {@link MediaStore}. The size limits are the
+ * container's (spring.servlet.multipart.*): it has already spooled and checked every part by the time we get here.
+ *
+ * A listing's photos are written in parallel on a small bounded pool. When the pool and its queue
+ * are busy, the request thread writes the file itself (CallerRunsPolicy), so a burst of big listings
+ * slows down instead of piling up unbounded work.
+ *
+ * The store commits each reference as soon as the file is written. When the caller runs in a
+ * transaction that then rolls back, nothing will ever point at those files, so the references
+ * are handed back after the rollback.
+ */
+@Component
+public class MediaUploader {
+
+    private final MediaStore mediaStore;
+    private final ThreadPoolExecutor executor;
+
+    public MediaUploader(
+            MediaStore mediaStore,
+            @Value("${joestate.uploads.workers:4}") int workers,
+            @Value("${joestate.uploads.queue-capacity:100}") int queueCapacity
+    ) {
+        this.mediaStore = mediaStore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "media-upload-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // ==========================================
+    // 1. UPLOADS
+    // ==========================================
+
+    // Keys in the same order as the files (empty parts are skipped). All or nothing: on any failure
+    // the files already stored are released again and the first error is rethrown.
+    public List<String> storeAll(List<MultipartFile> files) {
+        List<MultipartFile> parts = files == null ? List.of() : files.stream().filter(f -> !f.isEmpty()).toList();
+        if (parts.isEmpty()) return List.of();
+
+        List<Future<String>> futures = new ArrayList<>(parts.size());
+        for (MultipartFile part : parts) futures.add(executor.submit(() -> store(part)));
+
+        List<String> keys = new ArrayList<>(parts.size());
+        RuntimeException failure = null;
+        for (Future<String> future : futures) {
+            try {
+                if (failure == null) {
+                    keys.add(future.get());
+                } else {
+                    future.cancel(false);
+                    if (!future.isCancelled()) keys.add(future.get()); // already written: collect it to release it
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) failure = asRuntime(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) failure = new RuntimeException("Upload was interrupted");
+            }
+        }
+
+        if (failure != null) {
+            for (String key : keys) mediaStore.releaseNow(key, null);
+            throw failure;
+        }
+        releaseOnRollback(keys);
+        return keys;
+    }
+
+    public String storeOne(MultipartFile file) {
+        if (file == null || file.isEmpty()) throw new RuntimeException("No file uploaded");
+        String key = store(file);
+        releaseOnRollback(List.of(key));
+        return key;
+    }
+
+    // Undo for keys that were stored but never made it into a row. Inside a transaction the rollback
+    // already hands them back, so make sure it rolls back instead of releasing them twice.
+    public void releaseAll(List<String> keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return;
+        }
+        for (String key : keys) mediaStore.releaseNow(key, null);
+    }
+
+    private void releaseOnRollback(List<String> keys) {
+        if (keys.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) keys.forEach(key -> mediaStore.releaseNow(key, null));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ==========================================
+    // 2. HELPERS
+    // ==========================================
+
+    private String store(MultipartFile part) {
+        try (InputStream in = part.getInputStream()) {
+            return mediaStore.store(in, part.getOriginalFilename());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload '" + part.getOriginalFilename() + "'", e);
+        }
+    }
+
+    private static RuntimeException asRuntime(Throwable t) {
+        return t instanceof RuntimeException re ? re : new RuntimeException("Failed to upload images", t);
+    }
+}
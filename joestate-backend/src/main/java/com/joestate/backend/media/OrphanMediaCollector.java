@@ -0,0 +1,262 @@
+package com.joestate.backend.media;
+
+import com.joestate.backend.repositories.PropertyImageRepository;
+import com.joestate.backend.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Nightly reconciler that deletes upload files nothing points to any more (failed requests, crashes
+ * between the file write and the DB row, deletes that only got logged).
+ *
+ * Walks the sharded tree one leaf directory at a time. For each shard it loads the image / avatar names
+ * with that prefix (indexed LIKE 'abcd%'), sorts both sides by base name and merge-joins them, so
+ * neither the tree nor the tables are ever held in memory whole. Every candidate is then re-checked
+ * by exact name against all image columns and avatars before it's deleted, which also covers the
+ * files still in the old flat layout. Files younger than the grace period are never touched.
+ */
+@Slf4j
+@Component
+public class OrphanMediaCollector {
+
+    private static final int CONFIRM_BATCH = 500;
+    private static final Pattern RENDITION = Pattern.compile("^(.+)_(thumb|card|full)\\.jpg$");
+
+    private final ContentAddressedMediaStore mediaStore;
+    private final PropertyImageRepository propertyImageRepository;
+    private final UserRepository userRepository;
+    private final Duration gracePeriod;
+    private final long deleteIntervalNanos;
+    private final boolean dryRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Map<String, Object> lastReport = Map.of("status", "never run");
+
+    public OrphanMediaCollector(
+            ContentAddressedMediaStore mediaStore,
+            PropertyImageRepository propertyImageRepository,
+            UserRepository userRepository,
+            @Value("${joestate.media.gc.grace-hours:24}") long graceHours,
+            @Value("${joestate.media.gc.max-deletes-per-second:20}") int maxDeletesPerSecond,
+            @Value("${joestate.media.gc.dry-run:false}") boolean dryRun
+    ) {
+        this.mediaStore = mediaStore;
+        this.propertyImageRepository = propertyImageRepository;
+        this.userRepository = userRepository;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        this.deleteIntervalNanos = 1_000_000_000L / Math.max(1, maxDeletesPerSecond);
+        this.dryRun = dryRun;
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    // ==========================================
+    // 1. RUN
+    // ==========================================
+
+    @Scheduled(cron = "${joestate.media.gc.cron:0 30 3 * * *}")
+    public void collect() {
+        if (!running.compareAndSet(false, true)) return;
+
+        Run run = new Run(LocalDateTime.now().minus(gracePeriod));
+        try {
+            Path root = mediaStore.root();
+            if (Files.isDirectory(root)) {
+                // Sharded layout: uploads/ab/cd/
+                for (Path top : sortedSubdirectories(root)) {
+                    for (Path leaf : sortedSubdirectories(top)) {
+                        collectShard(run, top.getFileName().toString() + leaf.getFileName(), leaf);
+                    }
+                }
+                // Old flat layout, until the migrator has emptied it
+                collectFlat(run, root);
+            }
+        } catch (IOException e) {
+            run.errors++;
+            log.warn("Orphan media collection stopped early: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastReport = run.toReport(dryRun);
+            running.set(false);
+            log.info("Orphan media collection: {}", lastReport);
+        }
+    }
+
+    // ==========================================
+    // 2. MERGE-JOIN ONE SHARD
+    // ==========================================
+
+    private void collectShard(Run run, String prefix, Path dir) throws IOException, InterruptedException {
+        List<String> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) if (Files.isRegularFile(entry)) files.add(entry.getFileName().toString());
+        }
+        if (files.isEmpty()) return;
+        run.filesScanned += files.size();
+
+        // Referenced base names for this prefix, sorted
+        List<String> refs = new ArrayList<>();
+        for (String url : propertyImageRepository.findImageUrlsLike(prefix + "%")) refs.add(baseOf(url));
+        for (String url : userRepository.findProfilePictureUrlsLike(prefix + "%")) refs.add(baseOf(url));
+        refs.sort(null);
+
+        // Files sorted the same way, then walk both lists once
+        files.sort(Comparator.comparing(OrphanMediaCollector::baseOf));
+        List<String> candidates = new ArrayList<>();
+        int r = 0;
+        for (String file : files) {
+            String base = baseOf(file);
+            // Names not sharded by their own prefix can't be matched by the LIKE above: let the exact check decide
+            if (!ContentAddressedMediaStore.isHex(file, 4)) {
+                candidates.add(file);
+                continue;
+            }
+            while (r < refs.size() && refs.get(r).compareTo(base) < 0) r++;
+            if (r < refs.size() && refs.get(r).equals(base)) continue; // referenced
+            candidates.add(file);
+        }
+
+        confirmAndPurge(run, candidates, dir);
+    }
+
+    // Flat files have no usable prefix; they go straight to the exact check, a batch at a time
+    private void collectFlat(Run run, Path root) throws IOException, InterruptedException {
+        List<String> batch = new ArrayList<>(CONFIRM_BATCH);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+            for (Path entry : entries) {
+                if (!Files.isRegularFile(entry)) continue;
+                run.filesScanned++;
+                batch.add(entry.getFileName().toString());
+                if (batch.size() == CONFIRM_BATCH) {
+                    confirmAndPurge(run, batch, root);
+                    batch = new ArrayList<>(CONFIRM_BATCH);
+                }
+            }
+        }
+        confirmAndPurge(run, batch, root);
+    }
+
+    // ==========================================
+    // 3. CONFIRM + DELETE
+    // ==========================================
+
+    private void confirmAndPurge(Run run, List<String> candidates, Path dir) throws IOException, InterruptedException {
+        // Young files are skipped up front: they may belong to an upload whose row isn't committed yet
+        List<String> old = new ArrayList<>();
+        for (String name : candidates) {
+            LocalDateTime modified;
+            try {
+                modified = LocalDateTime.ofInstant(
+                        Files.getLastModifiedTime(dir.resolve(name)).toInstant(), ZoneId.systemDefault());
+            } catch (NoSuchFileException e) {
+                continue; // released or moved into its shard since the listing
+            }
+            if (modified.isBefore(run.cutoff)) old.add(name);
+        }
+
+        for (int from = 0; from < old.size(); from += CONFIRM_BATCH) {
+            List<String> batch = old.subList(from, Math.min(old.size(), from + CONFIRM_BATCH));
+
+            Set<String> used = new HashSet<>(userRepository.findUsedProfilePictureUrls(batch));
+            for (Object[] row : propertyImageRepository.findUsedFileNames(batch)) {
+                for (Object name : row) if (name != null) used.add((String) name);
+            }
+
+            for (String name : batch) {
+                if (used.contains(name)) continue;
+                if (dryRun) {
+                    try {
+                        run.bytesReclaimed += Files.size(dir.resolve(name));
+                    } catch (NoSuchFileException e) {
+                        continue; // gone since the listing
+                    }
+                    run.orphansFound++;
+                    continue;
+                }
+                run.orphansFound++;
+
+                run.throttle(deleteIntervalNanos);
+                try {
+                    long freed = mediaStore.purgeOrphan(name, run.cutoff);
+                    if (freed >= 0) {
+                        run.filesDeleted++;
+                        run.bytesReclaimed += freed;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    run.errors++;
+                    log.warn("Could not delete orphan {}: {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // 4. HELPERS
+    // ==========================================
+
+    // "abc.png", "abc_thumb.jpg", "abc_card.jpg" -> "abc": renditions live and die with their original
+    static String baseOf(String name) {
+        Matcher m = RENDITION.matcher(name);
+        if (m.matches()) return m.group(1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static List<Path> sortedSubdirectories(Path dir) throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path entry : entries) result.add(entry);
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private static class Run {
+        final LocalDateTime cutoff;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        long filesScanned, orphansFound, filesDeleted, bytesReclaimed, errors;
+        private long nextDeleteAt = System.nanoTime();
+
+        Run(LocalDateTime cutoff) {
+            this.cutoff = cutoff;
+        }
+
+        // Spreads deletes out so a big cleanup doesn't hog the disk
+        void throttle(long intervalNanos) throws InterruptedException {
+            long wait = nextDeleteAt - System.nanoTime();
+            if (wait > 0) Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            nextDeleteAt = Math.max(nextDeleteAt, System.nanoTime()) + intervalNanos;
+        }
+
+        Map<String, Object> toReport(boolean dryRun) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", startedAt);
+            report.put("finishedAt", LocalDateTime.now());
+            report.put("dryRun", dryRun);
+            report.put("filesScanned", filesScanned);
+            report.put("orphansFound", orphansFound);
+            report.put("filesDeleted", filesDeleted);
+            report.put("bytesReclaimed", bytesReclaimed);
+            report.put("errors", errors);
+            return report;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.joestate.backend.repositories;
 
+import com.joestate.backend.dto.ChatInboxRow;
+import com.joestate.backend.dto.ChatParticipants;
 import com.joestate.backend.entities.ChatThread;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,10 +16,50 @@ import java.util.Optional;
 @Repository
 public interface ChatThreadRepository extends JpaRepository<ChatThread, Long> {
 
-    // 1. Inbox View: Find all chats for a specific user (whether they are the buyer or the seller)
-    @Query("SELECT c FROM ChatThread c WHERE c.inquirer.email = :email OR c.property.owner.email = :email ORDER BY c.lastUpdatedAt DESC")
-    List<ChatThread> findAllUserThreads(@Param("email") String email);
+    // 1. Inbox View: every chat of a user (buyer or seller side) in one query over the thread rows,
+    // using the (inquirer_id | owner_id, last_updated_at) indexes. Picture = first image's thumbnail.
+    @Query("SELECT new com.joestate.backend.dto.ChatInboxRow(c.threadId, p.propertyId, p.title, p.status, p.price, " +
+            "(SELECT COALESCE(i.thumbUrl, i.imageUrl) FROM PropertyImage i WHERE i.imageId = " +
+            "   (SELECT MIN(i2.imageId) FROM PropertyImage i2 WHERE i2.property = p)), " +
+            "inq.userId, inq.email, inq.firstName, inq.lastName, inq.profilePictureUrl, " +
+            "own.userId, own.email, own.firstName, own.lastName, own.profilePictureUrl, " +
+            "c.lastMessagePreview, c.lastUpdatedAt, c.inquirerUnreadCount, c.ownerUnreadCount) " +
+            "FROM ChatThread c JOIN c.property p JOIN c.inquirer inq JOIN User own ON own.userId = c.ownerId " +
+            "WHERE c.inquirer.userId = :userId OR c.ownerId = :userId ORDER BY c.lastUpdatedAt DESC")
+    List<ChatInboxRow> findInboxRows(@Param("userId") Long userId);
 
     // 2. Prevent Duplicates: Check if a user already started a chat about this specific property
     Optional<ChatThread> findByProperty_PropertyIdAndInquirer_Email(Long propertyId, String email);
+
+    // Membership check without loading the thread, property and users
+    @Query("SELECT COUNT(c) > 0 FROM ChatThread c WHERE c.threadId = :threadId AND (c.inquirer.userId = :userId OR c.ownerId = :userId)")
+    boolean isParticipant(@Param("threadId") Long threadId, @Param("userId") Long userId);
+
+    // 3. Who is in a thread, without loading the thread or the property (cached by the live message path;
+    // the inbox summary itself is updated by ChatMessageWriter, in batches)
+    @Query("SELECT new com.joestate.backend.dto.ChatParticipants(c.threadId, c.property.propertyId, inq.userId, inq.email, own.userId, own.email) " +
+            "FROM ChatThread c JOIN c.inquirer inq JOIN User own ON own.userId = c.ownerId WHERE c.threadId = :threadId")
+    Optional<ChatParticipants> findParticipants(@Param("threadId") Long threadId);
+
+    // 4. Chat opened: the reader's side has nothing unread any more
+    @Modifying
+    @Query("UPDATE ChatThread c SET " +
+            "c.inquirerUnreadCount = CASE WHEN c.inquirer.userId = :userId THEN 0 ELSE c.inquirerUnreadCount END, " +
+            "c.ownerUnreadCount = CASE WHEN c.ownerId = :userId THEN 0 ELSE c.ownerUnreadCount END " +
+            "WHERE c.threadId = :threadId")
+    int clearUnread(@Param("threadId") Long threadId, @Param("userId") Long userId);
+
+    // 5. One-off backfill of the summary columns for threads created before they existed (owner_id still null)
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChatThread c SET " +
+            "c.ownerId = (SELECT p.owner.userId FROM Property p WHERE p = c.property), " +
+            "c.lastMessagePreview = (SELECT SUBSTRING(m.content, 1, 255) FROM Message m WHERE m.messageId = " +
+            "   (SELECT MAX(m2.messageId) FROM Message m2 WHERE m2.thread = c)), " +
+            "c.lastSenderId = (SELECT m.sender.userId FROM Message m WHERE m.messageId = " +
+            "   (SELECT MAX(m2.messageId) FROM Message m2 WHERE m2.thread = c)), " +
+            "c.inquirerUnreadCount = (SELECT CAST(COUNT(m) AS Integer) FROM Message m WHERE m.thread = c AND m.sender <> c.inquirer AND m.isRead = false), " +
+            "c.ownerUnreadCount = (SELECT CAST(COUNT(m) AS Integer) FROM Message m WHERE m.thread = c AND m.sender = c.inquirer AND m.isRead = false) " +
+            "WHERE c.ownerId IS NULL")
+    int backfillInboxSummaries();
 }
\ No newline at end of file
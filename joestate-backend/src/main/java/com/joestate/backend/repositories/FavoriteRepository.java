@@ -2,11 +2,22 @@ package com.joestate.backend.repositories;
 
 import com.joestate.backend.entities.Favorite;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
 
     Optional<Favorite> findByUser_EmailAndProperty_PropertyId(String email, Long propertyId);
+
+    // IDs only: no User / Property entities get hydrated
+    @Query("SELECT f.property.propertyId FROM Favorite f WHERE f.user.email = :email")
+    List<Long> findPropertyIdsByUserEmail(@Param("email") String email);
+
+    // Same, newest favorite first, for the "My Favorites" page
+    @Query("SELECT f.property.propertyId FROM Favorite f WHERE f.user.email = :email ORDER BY f.addedAt DESC, f.favoriteId DESC")
+    List<Long> findPropertyIdsByUserEmailNewestFirst(@Param("email") String email);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.joestate.backend.repositories;
+
+import com.joestate.backend.entities.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Every write here is REQUIRES_NEW: ContentAddressedMediaStore changes a row and the file under the same
+// stripe lock, so the row has to be committed before that lock is let go, not whenever the caller's
+// transaction happens to commit (another thread would act on the old count in between).
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    // New blob -> row with 1 reference, known blob -> one more reference. Atomic, so two identical
+    // uploads racing each other can't both insert.
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO media_blobs (file_key, ref_count, size_bytes, created_at, last_referenced_at) " +
+            "VALUES (:key, 1, :size, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, last_referenced_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void addReference(@Param("key") String fileKey, @Param("size") long sizeBytes);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount - 1 WHERE b.fileKey = :key AND b.refCount > 0")
+    int release(@Param("key") String fileKey);
+
+    // Only succeeds if nobody took a new reference in between
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("DELETE FROM MediaBlob b WHERE b.fileKey = :key AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("key") String fileKey);
+
+    // Orphan collector: only succeeds if the blob wasn't referenced again after the cutoff
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("DELETE FROM MediaBlob b WHERE b.fileKey = :key AND COALESCE(b.lastReferencedAt, b.createdAt) <= :cutoff")
+    int deleteIfNotReferencedSince(@Param("key") String fileKey, @Param("cutoff") LocalDateTime cutoff);
+
+    // Also safe from after-commit callbacks, where the caller's finished transaction is still bound
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    boolean existsByFileKey(String fileKey);
+}
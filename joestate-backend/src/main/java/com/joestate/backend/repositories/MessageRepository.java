@@ -1,7 +1,11 @@
 package com.joestate.backend.repositories;
 
 import com.joestate.backend.entities.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,9 +13,19 @@ import java.util.List;
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    // 1. Chat Window: Get all messages in a specific thread, oldest to newest.
-    List<Message> findByThread_ThreadIdOrderByTimestampAsc(Long threadId);
+    // 1. Chat Window: one page of a thread, newest first, optionally only messages older than :before.
+    // Walks the (thread_id, message_id) index backwards, so page cost doesn't depend on thread length.
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.thread.threadId = :threadId " +
+            "AND (:before IS NULL OR m.messageId < :before) ORDER BY m.messageId DESC")
+    List<Message> findHistoryPage(@Param("threadId") Long threadId, @Param("before") Long before, Pageable pageable);
 
-    // 2. Notifications: Count how many unread messages are in this thread that were NOT sent by me
-    long countByThread_ThreadIdAndSender_EmailNotAndIsReadFalse(Long threadId, String myEmail);
-}
\ No newline at end of file
+    // 2. Chat opened: everything the other side sent becomes read, in one statement
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true " +
+            "WHERE m.thread.threadId = :threadId AND m.sender.userId <> :readerId AND m.isRead = false")
+    int markReadByReader(@Param("threadId") Long threadId, @Param("readerId") Long readerId);
+
+    // 3. Highest message ID in the table (where the chat lanes continue numbering after a restart)
+    @Query("SELECT COALESCE(MAX(m.messageId), 0) FROM Message m")
+    long findMaxMessageId();
+}
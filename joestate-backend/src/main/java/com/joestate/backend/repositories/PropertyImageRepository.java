@@ -1,8 +1,14 @@
 package com.joestate.backend.repositories;
 
 import com.joestate.backend.entities.PropertyImage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -10,4 +16,31 @@ public interface PropertyImageRepository extends JpaRepository<PropertyImage, Lo
 
     // To fetch images for a specific property gallery
     List<PropertyImage> findByPropertyPropertyId(Long propertyId);
-}
\ No newline at end of file
+
+    // For card views: [propertyId, imageUrl, cardUrl, thumbUrl], main image first, then upload order (first row per property wins)
+    @Query("SELECT i.property.propertyId, i.imageUrl, i.cardUrl, i.thumbUrl FROM PropertyImage i " +
+            "WHERE i.property.propertyId IN :ids ORDER BY i.isMain DESC, i.imageId")
+    List<Object[]> findCardImageUrls(@Param("ids") Collection<Long> ids);
+
+    // Orphan collector: every image (original) whose file name starts with a shard prefix, e.g. "ab12%"
+    @Query("SELECT i.imageUrl FROM PropertyImage i WHERE i.imageUrl LIKE :prefix")
+    List<String> findImageUrlsLike(@Param("prefix") String prefix);
+
+    // Orphan collector: which of these file names are still used, as an original or a rendition
+    @Query("SELECT i.imageUrl, i.thumbUrl, i.cardUrl, i.fullUrl FROM PropertyImage i " +
+            "WHERE i.imageUrl IN :names OR i.thumbUrl IN :names OR i.cardUrl IN :names OR i.fullUrl IN :names")
+    List<Object[]> findUsedFileNames(@Param("names") Collection<String> names);
+
+    // Images the rendition pipeline hasn't handled yet (older uploads, or dropped when the queue was full):
+    // [imageId, propertyId], paged by imageId so images that keep failing can't stall the sweep
+    @Query("SELECT i.imageId, i.property.propertyId FROM PropertyImage i " +
+            "WHERE i.thumbUrl IS NULL AND i.imageId > :afterId ORDER BY i.imageId")
+    List<Object[]> findPendingRenditions(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Returns 0 if the image was deleted while its renditions were being generated
+    @Modifying
+    @Transactional
+    @Query("UPDATE PropertyImage i SET i.thumbUrl = :thumb, i.cardUrl = :card, i.fullUrl = :full WHERE i.imageId = :id")
+    int setRenditions(@Param("id") Long imageId, @Param("thumb") String thumbUrl,
+                      @Param("card") String cardUrl, @Param("full") String fullUrl);
+}
@@ -1,16 +1,32 @@
 package com.joestate.backend.repositories;
 
+import com.joestate.backend.dto.PropertyCardRow;
+import com.joestate.backend.dto.PropertyIndexRow;
 import com.joestate.backend.entities.Property;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PropertyRepository extends JpaRepository<Property, Long> {
 
-    @Query("SELECT p FROM Property p WHERE " +
+    // Card projection (?view=card): only the columns a result card shows. No description TEXT, no owner phone/bio.
+    String CARD_SELECT = "SELECT new com.joestate.backend.dto.PropertyCardRow(" +
+            "p.propertyId, o.userId, o.firstName, o.lastName, o.profilePictureUrl, p.title, p.price, p.area, " +
+            "p.location, p.latitude, p.longitude, p.roomCount, p.bathCount, p.type, p.purpose, p.status, " +
+            "p.rentFrequency, p.datePosted) FROM Property p JOIN p.owner o ";
+
+    // Structured search filters (the JPQL fallback while the in-memory index is still loading)
+    String SEARCH_WHERE = "WHERE " +
             "(:loc IS NULL OR p.location LIKE %:loc%) AND " +
             "(:purp IS NULL OR p.purpose = :purp) AND " +
             "(:type IS NULL OR p.type = :type) AND " +
@@ -21,7 +37,12 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
             "(:maxA IS NULL OR p.area <= :maxA) AND " +
             "(:beds IS NULL OR p.roomCount >= :beds) AND " +
             "(:baths IS NULL OR p.bathCount >= :baths) AND " +
-            "(p.status = 'ACTIVE')")
+            "(p.status = 'ACTIVE')";
+
+    // Card read paths: owner + images come back in the same SELECT, so mapping a page of results
+    // to PropertyDTOs is one query instead of 1 + N lazy image loads.
+    @EntityGraph(attributePaths = {"owner", "images"})
+    @Query("SELECT p FROM Property p " + SEARCH_WHERE)
     List<Property> searchProperties(
             @Param("loc") String location,
             @Param("purp") Property.Purpose purpose,
@@ -35,13 +56,79 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
             @Param("baths") Integer baths
     );
 
+    // Same fallback search, as card rows (?view=card)
+    @Query(CARD_SELECT + SEARCH_WHERE + " ORDER BY p.propertyId")
+    List<PropertyCardRow> searchCardRows(
+            @Param("loc") String location,
+            @Param("purp") Property.Purpose purpose,
+            @Param("type") Property.PropertyType type,
+            @Param("freq") Property.RentFrequency frequency,
+            @Param("minP") Double minPrice,
+            @Param("maxP") Double maxPrice,
+            @Param("minA") Integer minArea,
+            @Param("maxA") Integer maxArea,
+            @Param("beds") Integer beds,
+            @Param("baths") Integer baths
+    );
+
     @Query("SELECT DISTINCT p.location FROM Property p WHERE LOWER(p.location) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<String> findDistinctLocations(@Param("query") String query);
 
-    List<Property> findTop3ByStatusOrderByDatePostedDesc(Property.Status status);
+    // For the location autocomplete index: [propertyId, location] pairs only, no entity hydration
+    @Query("SELECT p.propertyId, p.location FROM Property p WHERE p.status = :status")
+    List<Object[]> findIdAndLocationByStatus(@Param("status") Property.Status status);
+
+    // For the full-text index: [propertyId, title, description]
+    @Query("SELECT p.propertyId, p.title, p.description FROM Property p WHERE p.status = :status")
+    List<Object[]> findIdTitleAndDescriptionByStatus(@Param("status") Property.Status status);
+
+    // For the structured search index: the filter / sort columns only
+    @Query("SELECT new com.joestate.backend.dto.PropertyIndexRow(p.propertyId, p.type, p.purpose, p.rentFrequency, " +
+            "p.price, p.area, p.roomCount, p.bathCount, p.location, p.latitude, p.longitude, p.datePosted) " +
+            "FROM Property p WHERE p.status = :status ORDER BY p.datePosted DESC")
+    List<PropertyIndexRow> findIndexRowsByStatus(@Param("status") Property.Status status);
+
+    // Search results / favorites: the in-memory index or the favorites cache hands us the IDs
+    @Query("SELECT DISTINCT p FROM Property p JOIN FETCH p.owner LEFT JOIN FETCH p.images WHERE p.propertyId IN :ids")
+    List<Property> findCardsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + "WHERE p.propertyId IN :ids")
+    List<PropertyCardRow> findCardRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(CARD_SELECT + "WHERE o.email = :email ORDER BY p.propertyId")
+    List<PropertyCardRow> findCardRowsByOwnerEmail(@Param("email") String email);
+
+    @Query(CARD_SELECT + "WHERE o.userId = :userId AND p.status <> 'SUSPENDED' ORDER BY p.propertyId")
+    List<PropertyCardRow> findPublicCardRowsByOwnerId(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = {"owner", "images"})
+    @Query("SELECT p FROM Property p WHERE p.propertyId = :id")
+    Optional<Property> findCardById(@Param("id") Long id);
+
+    // ETag inputs: [property lastModifiedAt, owner lastModifiedAt], without loading either entity
+    @Query("SELECT p.lastModifiedAt, o.lastModifiedAt FROM Property p JOIN p.owner o WHERE p.propertyId = :id")
+    List<Object[]> findVersionStamps(@Param("id") Long id);
+
+    // ETag inputs for a user's listings: [count, newest lastModifiedAt, sum of IDs, owner lastModifiedAt].
+    // The ID sum changes when a listing is deleted even if the max timestamp doesn't.
+    @Query("SELECT COUNT(p), MAX(p.lastModifiedAt), SUM(p.propertyId), MAX(o.lastModifiedAt) " +
+            "FROM User o LEFT JOIN o.properties p WHERE o.userId = :userId")
+    List<Object[]> findOwnerListingStamps(@Param("userId") Long userId);
+
+    // For the featured snapshot: newest IDs first (the cards are then loaded with findCardsByIds)
+    @Query("SELECT p.propertyId FROM Property p WHERE p.status = :status ORDER BY p.datePosted DESC, p.propertyId DESC")
+    List<Long> findNewestIdsByStatus(@Param("status") Property.Status status, Pageable pageable);
+
+    // Background jobs that change a listing's images without going through save() still need to move its ETag
+    @Modifying
+    @Transactional
+    @Query("UPDATE Property p SET p.lastModifiedAt = :at WHERE p.propertyId = :id")
+    int touchLastModified(@Param("id") Long propertyId, @Param("at") LocalDateTime at);
 
+    @EntityGraph(attributePaths = {"owner", "images"})
     List<Property> findAllByOwner_Email(String email); // Finds all houses owned by this user
 
+    @EntityGraph(attributePaths = {"owner", "images"})
     List<Property> findAllByOwner_UserId(Long userId);
 
     // For the KPI Dashboard
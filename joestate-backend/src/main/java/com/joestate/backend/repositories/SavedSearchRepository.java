@@ -0,0 +1,20 @@
+package com.joestate.backend.repositories;
+
+import com.joestate.backend.entities.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+
+    List<SavedSearch> findByUser_EmailOrderByCreatedAtDesc(String email);
+
+    long countByUser_Email(String email);
+
+    // For the percolator startup load (user fetched too, we need the receiver for each match)
+    @Query("SELECT s FROM SavedSearch s JOIN FETCH s.user")
+    List<SavedSearch> findAllWithUser();
+}
@@ -1,9 +1,13 @@
 package com.joestate.backend.repositories;
 
+import com.joestate.backend.dto.ChatSender;
 import com.joestate.backend.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -13,6 +17,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // For Login
     Optional<User> findByEmail(String email);
 
+    // Just the ID (chat inbox / read markers), without loading the user row into the session
+    @Query("SELECT u.userId FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // Identity of a live chat connection, loaded once on STOMP CONNECT
+    @Query("SELECT new com.joestate.backend.dto.ChatSender(u.userId, u.email, u.firstName, u.lastName, u.banStatus) FROM User u WHERE u.email = :email")
+    Optional<ChatSender> findChatSenderByEmail(@Param("email") String email);
+
     // For Verification Flow
     Optional<User> findByVerificationCode(String code);
 
@@ -31,4 +43,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
             "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
             "OR u.phoneNumber LIKE CONCAT('%', :searchTerm, '%')")
     List<User> searchUsersGlobally(@org.springframework.data.repository.query.Param("searchTerm") String searchTerm);
+
+    // Orphan collector: avatars by shard prefix, and which of these names are still someone's avatar
+    @Query("SELECT u.profilePictureUrl FROM User u WHERE u.profilePictureUrl LIKE :prefix")
+    List<String> findProfilePictureUrlsLike(@Param("prefix") String prefix);
+
+    @Query("SELECT u.profilePictureUrl FROM User u WHERE u.profilePictureUrl IN :names")
+    List<String> findUsedProfilePictureUrls(@Param("names") Collection<String> names);
+
+    // ETag input for the public profile, without loading the entity
+    @Query("SELECT u.lastModifiedAt FROM User u WHERE u.userId = :id")
+    List<LocalDateTime> findLastModifiedAt(@Param("id") Long id);
 }
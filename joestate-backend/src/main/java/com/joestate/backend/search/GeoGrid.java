@@ -0,0 +1,89 @@
+package com.joestate.backend.search;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixed-size lat/lng grid (cells of {@link #CELL_DEGREES}, roughly 2 km in Jordan) mapping each cell
+ * to the index slots of the listings inside it. A radius or viewport query only visits the cells
+ * that overlap its bounding box. Not thread-safe: PropertySearchIndex guards it with its own lock.
+ */
+public class GeoGrid {
+
+    static final double CELL_DEGREES = 0.02;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Map<Long, Set<Integer>> cells = new HashMap<>();
+    private int size = 0;
+
+    void add(int slot, double lat, double lng) {
+        cells.computeIfAbsent(cellKey(lat, lng), k -> new HashSet<>()).add(slot);
+        size++;
+    }
+
+    void remove(int slot, double lat, double lng) {
+        long key = cellKey(lat, lng);
+        Set<Integer> cell = cells.get(key);
+        if (cell == null || !cell.remove(slot)) return;
+        if (cell.isEmpty()) cells.remove(key);
+        size--;
+    }
+
+    void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    /**
+     * Slots whose cell overlaps the box. A superset: callers still do the exact point-in-box / distance check.
+     * Returns null when the box covers more cells than there are points, meaning a plain scan is cheaper.
+     */
+    BitSet candidates(double minLat, double maxLat, double minLng, double maxLng) {
+        long minRow = cellIndex(minLat), maxRow = cellIndex(maxLat);
+        long minCol = cellIndex(minLng), maxCol = cellIndex(maxLng);
+        if ((maxRow - minRow + 1) * (maxCol - minCol + 1) > Math.max(size, cells.size())) return null;
+
+        BitSet result = new BitSet();
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                Set<Integer> cell = cells.get(key(row, col));
+                if (cell != null) cell.forEach(result::set);
+            }
+        }
+        return result;
+    }
+
+    // Great-circle distance in km (haversine)
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Degrees of latitude / longitude spanned by radiusKm around a given latitude
+    static double latDelta(double radiusKm) {
+        return Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+    }
+
+    static double lngDelta(double radiusKm, double lat) {
+        double cos = Math.cos(Math.toRadians(lat));
+        return cos < 1e-6 ? 180 : Math.min(180, latDelta(radiusKm) / cos);
+    }
+
+    private static long cellKey(double lat, double lng) {
+        return key(cellIndex(lat), cellIndex(lng));
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+}
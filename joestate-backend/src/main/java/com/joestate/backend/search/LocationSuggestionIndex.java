@@ -0,0 +1,190 @@
+package com.joestate.backend.search;
+
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.repositories.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * N-gram index over the distinct locations of ACTIVE listings, for the search bar autocomplete.
+ *
+ * Every location is broken into its 2-grams and 3-grams. A query only has to look at the shortest
+ * posting list among its own grams and verify the substring match, instead of running
+ * "LIKE '%q%'" over the whole properties table on every keystroke.
+ * Suggestions are ranked by how many active listings use that location.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationSuggestionIndex {
+
+    private final PropertyRepository propertyRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Which location each active listing contributes to (so edits can decrement the old one)
+    private final Map<Long, String> keyByProperty = new HashMap<>();
+
+    // Normalized location -> display text + number of active listings there
+    private final Map<String, LocationEntry> entries = new HashMap<>();
+
+    // 2-gram / 3-gram -> normalized locations containing it
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+    private volatile boolean ready = false;
+    private final RebuildBuffer<PropertyChangedEvent> rebuildBuffer = new RebuildBuffer<>();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==========================================
+    // 1. QUERY
+    // ==========================================
+
+    public List<String> suggest(String query, int limit) {
+        String q = normalize(query);
+        if (q == null || q.length() < 2) return Collections.emptyList();
+
+        lock.readLock().lock();
+        try {
+            // Pick the rarest gram of the query as the candidate list
+            Set<String> candidates = null;
+            for (String gram : gramsOf(q, q.length() >= 3 ? 3 : 2)) {
+                Set<String> posting = grams.get(gram);
+                if (posting == null) return Collections.emptyList();
+                if (candidates == null || posting.size() < candidates.size()) candidates = posting;
+            }
+
+            List<LocationEntry> hits = new ArrayList<>();
+            for (String key : candidates) {
+                if (key.contains(q)) hits.add(entries.get(key));
+            }
+
+            hits.sort(Comparator.comparingInt(LocationEntry::getCount).reversed()
+                    .thenComparing(LocationEntry::getDisplay));
+
+            List<String> result = new ArrayList<>(Math.min(limit, hits.size()));
+            for (int i = 0; i < hits.size() && i < limit; i++) result.add(hits.get(i).getDisplay());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // 2. SYNC WITH THE DATABASE
+    // ==========================================
+
+    // Changes committed while this runs are replayed after the swap (see RebuildBuffer)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        rebuildBuffer.start();
+        List<Object[]> rows = propertyRepository.findIdAndLocationByStatus(Property.Status.ACTIVE);
+        lock.writeLock().lock();
+        try {
+            keyByProperty.clear();
+            entries.clear();
+            grams.clear();
+            for (Object[] row : rows) addLocked((Long) row[0], (String) row[1]);
+            rebuildBuffer.finish().forEach(this::applyLocked);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0) // before SearchResultCache invalidates, so re-cached results already see this change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (rebuildBuffer.defer(event)) return;
+        lock.writeLock().lock();
+        try {
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(PropertyChangedEvent event) {
+        Property p = event.getProperty();
+        removeLocked(event.getPropertyId());
+        if (p != null && p.getStatus() == Property.Status.ACTIVE) {
+            addLocked(p.getPropertyId(), p.getLocation());
+        }
+    }
+
+    private void addLocked(Long propertyId, String location) {
+        String key = normalize(location);
+        if (key == null) return;
+
+        keyByProperty.put(propertyId, key);
+        LocationEntry entry = entries.get(key);
+        if (entry == null) {
+            entries.put(key, new LocationEntry(location.trim(), 1));
+            for (String gram : allGramsOf(key)) grams.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+        } else {
+            entry.count++;
+        }
+    }
+
+    private void removeLocked(Long propertyId) {
+        String key = keyByProperty.remove(propertyId);
+        if (key == null) return;
+
+        LocationEntry entry = entries.get(key);
+        if (--entry.count > 0) return;
+
+        // Last listing in this location is gone: drop it from the grams too
+        entries.remove(key);
+        for (String gram : allGramsOf(key)) {
+            Set<String> posting = grams.get(gram);
+            if (posting == null) continue;
+            posting.remove(key);
+            if (posting.isEmpty()) grams.remove(gram);
+        }
+    }
+
+    // ==========================================
+    // 3. HELPERS
+    // ==========================================
+
+    private static String normalize(String location) {
+        if (location == null) return null;
+        String key = location.trim().toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    private static Set<String> allGramsOf(String key) {
+        Set<String> result = gramsOf(key, 2);
+        result.addAll(gramsOf(key, 3));
+        return result;
+    }
+
+    // Also used by SavedSearchPercolator to look up saved locations inside a listing's location
+    static Set<String> gramsOf(String s, int n) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + n <= s.length(); i++) result.add(s.substring(i, i + n));
+        return result;
+    }
+
+    private static class LocationEntry {
+        private final String display;
+        private int count;
+
+        LocationEntry(String display, int count) {
+            this.display = display;
+            this.count = count;
+        }
+
+        String getDisplay() { return display; }
+        int getCount() { return count; }
+    }
+}
@@ -0,0 +1,682 @@
+package com.joestate.backend.search;
+
+import com.joestate.backend.dto.PropertyFacetsDTO;
+import com.joestate.backend.dto.PropertyIndexRow;
+import com.joestate.backend.dto.PropertySearchCriteria;
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.repositories.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, column-oriented copy of every ACTIVE listing.
+ *
+ * The JPQL search can't use a MySQL index (optional params + leading-wildcard LIKE), so each search
+ * was a full table scan. Here the numeric columns live in primitive arrays and every enum value has
+ * its own BitSet, so a search is a few BitSet ANDs plus one tight loop over the survivors.
+ * The database is only hit afterwards to load the rows we actually return.
+ */
+@Component
+@RequiredArgsConstructor
+public class PropertySearchIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // --- Similarity weights: a 2x price gap (log diff ~0.69) costs about as much as a different type ---
+    private static final double PRICE_WEIGHT = 2.0;
+    private static final double AREA_WEIGHT = 1.5;
+    private static final double ROOM_WEIGHT = 0.15;
+    private static final double BATH_WEIGHT = 0.1;
+    private static final double TYPE_PENALTY = 1.0;
+    private static final double LOCATION_PENALTY = 0.5;
+    private static final double KM_PER_LOCATION_PENALTY = 5.0;
+    private static final double MISSING_PENALTY = 0.5;
+
+    private final PropertyRepository propertyRepository;
+    private final PropertyTextIndex textIndex;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --- Slot bookkeeping (a "slot" is a row position in the column arrays) ---
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private int highWaterMark = 0;
+
+    // --- Columns (NaN / Integer.MIN_VALUE stand in for NULL, so they fail every range check like SQL does) ---
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] areas = new double[INITIAL_CAPACITY];
+    private int[] roomCounts = new int[INITIAL_CAPACITY];
+    private int[] bathCounts = new int[INITIAL_CAPACITY];
+    private String[] locations = new String[INITIAL_CAPACITY]; // lower-cased
+    private long[] postedAt = new long[INITIAL_CAPACITY]; // epoch millis, for NEWEST ordering
+    private double[] lats = new double[INITIAL_CAPACITY];
+    private double[] lngs = new double[INITIAL_CAPACITY];
+
+    // --- Similarity features (see similar()): log of the monthly-equivalent price and of the area, plus the
+    // location as a dictionary code so comparing two listings' locations is an int compare ---
+    private double[] logMonthlyPrices = new double[INITIAL_CAPACITY];
+    private double[] logAreas = new double[INITIAL_CAPACITY];
+    private int[] locationCodes = new int[INITIAL_CAPACITY];
+    private final LocationDictionary locationDictionary = new LocationDictionary();
+
+    // --- One bitmap per enum value ---
+    private final BitSet[] byType = newBitSets(Property.PropertyType.values().length);
+    private final BitSet[] byPurpose = newBitSets(Property.Purpose.values().length);
+    private final BitSet[] byRentFrequency = newBitSets(Property.RentFrequency.values().length);
+
+    // --- Spatial grid over the listings that have coordinates ---
+    private final GeoGrid geoGrid = new GeoGrid();
+
+    private volatile boolean ready = false;
+    private final RebuildBuffer<PropertyChangedEvent> rebuildBuffer = new RebuildBuffer<>();
+
+    // ==========================================
+    // 1. QUERY
+    // ==========================================
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Returns the IDs of all ACTIVE listings matching the criteria: nearest first for a geo search,
+    // best text match first if there is a ?q=, otherwise in ascending ID order
+    public List<Long> search(PropertySearchCriteria c) {
+        QueryContext ctx = new QueryContext(c, textScores(c));
+        SearchSort sort = c.hasGeoFilter() ? SearchSort.DISTANCE : ctx.scores != null ? SearchSort.RELEVANCE : null;
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(ctx);
+            List<Integer> slots = new ArrayList<>(matches.cardinality());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                slots.add(slot);
+            }
+            if (sort != null) {
+                slots.sort((a, b) -> compare(sortKey(a, sort, ctx), ids[a], sortKey(b, sort, ctx), ids[b]));
+            } else {
+                slots.sort(Comparator.comparingLong(slot -> ids[slot]));
+            }
+            List<Long> result = new ArrayList<>(slots.size());
+            for (int slot : slots) result.add(ids[slot]);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset pagination: returns up to {@code size} matches that sort strictly after {@code after}.
+     * Only a heap of {@code size} entries is kept while scanning, so page 500 costs the same as page 1.
+     */
+    public SearchPage page(PropertySearchCriteria c, SearchSort sort, SearchCursor after, int size) {
+        QueryContext ctx = new QueryContext(c, textScores(c));
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(ctx);
+
+            // Max-heap on (key, id): the root is the "worst" row we are currently keeping
+            Comparator<Integer> order = (a, b) -> compare(sortKey(a, sort, ctx), ids[a], sortKey(b, sort, ctx), ids[b]);
+            PriorityQueue<Integer> heap = new PriorityQueue<>(size + 1, order.reversed());
+            boolean hasMore = false;
+
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                if (after != null && compare(sortKey(slot, sort, ctx), ids[slot], after.getSortKey(), after.getPropertyId()) <= 0) {
+                    continue;
+                }
+                heap.offer(slot);
+                if (heap.size() > size) {
+                    heap.poll();
+                    hasMore = true;
+                }
+            }
+
+            List<Integer> slots = new ArrayList<>(heap);
+            slots.sort(order);
+
+            List<Long> pageIds = new ArrayList<>(slots.size());
+            for (int slot : slots) pageIds.add(ids[slot]);
+
+            SearchCursor next = null;
+            if (hasMore && !slots.isEmpty()) {
+                int last = slots.get(slots.size() - 1);
+                next = new SearchCursor(sort, sortKey(last, sort, ctx), ids[last]);
+            }
+            return new SearchPage(pageIds, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts and histograms for the search sidebar, computed in one go:
+     * one scan builds the base set (every non-categorical filter except beds), then each enum facet
+     * is just BitSet intersections, and one last pass over the matches fills bedrooms + histograms.
+     */
+    public PropertyFacetsDTO facets(PropertySearchCriteria c, int bucketCount) {
+        QueryContext ctx = new QueryContext(c, textScores(c));
+        lock.readLock().lock();
+        try {
+            BitSet base = candidates(ctx);
+            scan(base, ctx, false);
+
+            BitSet purposeMask = c.getPurpose() != null ? byPurpose[c.getPurpose().ordinal()] : null;
+            BitSet typeMask = c.getType() != null ? byType[c.getType().ordinal()] : null;
+            BitSet freqMask = c.getRentFrequency() != null ? byRentFrequency[c.getRentFrequency().ordinal()] : null;
+
+            Map<Property.PropertyType, Long> types = new EnumMap<>(Property.PropertyType.class);
+            BitSet forTypes = intersect(base, purposeMask, freqMask);
+            for (Property.PropertyType t : Property.PropertyType.values()) {
+                types.put(t, (long) intersect(forTypes, byType[t.ordinal()]).cardinality());
+            }
+
+            Map<Property.Purpose, Long> purposes = new EnumMap<>(Property.Purpose.class);
+            BitSet forPurposes = intersect(base, typeMask, freqMask);
+            for (Property.Purpose p : Property.Purpose.values()) {
+                purposes.put(p, (long) intersect(forPurposes, byPurpose[p.ordinal()]).cardinality());
+            }
+
+            Map<Property.RentFrequency, Long> frequencies = new EnumMap<>(Property.RentFrequency.class);
+            BitSet forFrequencies = intersect(base, purposeMask, typeMask);
+            for (Property.RentFrequency f : Property.RentFrequency.values()) {
+                frequencies.put(f, (long) intersect(forFrequencies, byRentFrequency[f.ordinal()]).cardinality());
+            }
+
+            // Bedrooms ignore the beds filter; the totals and histograms respect it
+            BitSet all = intersect(base, purposeMask, typeMask, freqMask);
+            long[] bedroomCounts = new long[6];
+            int matched = 0;
+            double[] matchedPrices = new double[all.cardinality()];
+            double[] matchedAreas = new double[matchedPrices.length];
+            for (int slot = all.nextSetBit(0); slot >= 0; slot = all.nextSetBit(slot + 1)) {
+                if (roomCounts[slot] >= 0) bedroomCounts[Math.min(roomCounts[slot], 5)]++;
+                if (c.getBeds() == null || roomCounts[slot] >= c.getBeds()) {
+                    matchedPrices[matched] = prices[slot];
+                    matchedAreas[matched] = areas[slot];
+                    matched++;
+                }
+            }
+
+            Map<String, Long> bedrooms = new LinkedHashMap<>();
+            for (int i = 0; i < 5; i++) bedrooms.put(String.valueOf(i), bedroomCounts[i]);
+            bedrooms.put("5+", bedroomCounts[5]);
+
+            return PropertyFacetsDTO.builder()
+                    .total(matched)
+                    .types(types)
+                    .purposes(purposes)
+                    .rentFrequencies(frequencies)
+                    .bedrooms(bedrooms)
+                    .priceHistogram(histogram(matchedPrices, matched, bucketCount))
+                    .areaHistogram(histogram(matchedAreas, matched, bucketCount))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The k ACTIVE listings closest to {@code source}, closest first (the source itself excluded).
+     *
+     * Only listings with the same purpose are considered, since sale and rent prices aren't comparable.
+     * Distance is a weighted sum over: log monthly-equivalent price, log area, rooms, baths, plus fixed
+     * penalties for a different type and a different location (or the km between them when both have
+     * coordinates). Logs make "20% more expensive" cost the same at 300 JOD as at 3000 JOD.
+     * One pass over the purpose bitmap with a k-sized insertion list (timings: SimilarPropertiesBenchmark).
+     */
+    public List<Long> similar(Property source, int k) {
+        if (source.getPurpose() == null || k <= 0) return Collections.emptyList();
+
+        double price = logMonthlyPrice(source.getPrice(), source.getRentFrequency());
+        double area = logArea(source.getArea());
+        int rooms = source.getRoomCount() != null ? source.getRoomCount() : Integer.MIN_VALUE;
+        int baths = source.getBathCount() != null ? source.getBathCount() : Integer.MIN_VALUE;
+        int type = source.getType() != null ? source.getType().ordinal() : -1;
+        boolean hasCoords = source.getLatitude() != null && source.getLongitude() != null;
+        double lat = hasCoords ? source.getLatitude() : Double.NaN;
+        double lng = hasCoords ? source.getLongitude() : Double.NaN;
+
+        lock.readLock().lock();
+        try {
+            int locationCode = locationDictionary.codeOf(source.getLocation());
+            Integer sourceSlot = slotById.get(source.getPropertyId());
+
+            BitSet candidates = byPurpose[source.getPurpose().ordinal()];
+            BitSet sameType = type >= 0 ? byType[type] : null;
+
+            // Best k so far, sorted by distance (k is small, so insertion beats a heap here)
+            int[] bestSlots = new int[k];
+            double[] bestDistances = new double[k];
+            int found = 0;
+
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                if (sourceSlot != null && slot == sourceSlot) continue;
+
+                double d = squaredDiff(price, logMonthlyPrices[slot], PRICE_WEIGHT)
+                        + squaredDiff(area, logAreas[slot], AREA_WEIGHT)
+                        + countDiff(rooms, roomCounts[slot], ROOM_WEIGHT)
+                        + countDiff(baths, bathCounts[slot], BATH_WEIGHT);
+                if (sameType != null && !sameType.get(slot)) d += TYPE_PENALTY;
+
+                if (hasCoords && !Double.isNaN(lats[slot])) {
+                    d += Math.min(GeoGrid.distanceKm(lat, lng, lats[slot], lngs[slot]) / KM_PER_LOCATION_PENALTY, 2) * LOCATION_PENALTY;
+                } else if (locationCode < 0 || locationCodes[slot] != locationCode) {
+                    d += LOCATION_PENALTY;
+                }
+
+                if (found == k && d >= bestDistances[k - 1]) continue;
+                int pos = found < k ? found++ : k - 1;
+                while (pos > 0 && bestDistances[pos - 1] > d) {
+                    bestDistances[pos] = bestDistances[pos - 1];
+                    bestSlots[pos] = bestSlots[pos - 1];
+                    pos--;
+                }
+                bestDistances[pos] = d;
+                bestSlots[pos] = slot;
+            }
+
+            List<Long> result = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) result.add(ids[bestSlots[i]]);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Always ascending; descending modes negate the value. NULLs (NaN) sort last in every mode.
+    private double sortKey(int slot, SearchSort sort, QueryContext ctx) {
+        double v;
+        switch (sort) {
+            case RELEVANCE: v = ctx.scores != null ? -ctx.scores.getOrDefault(ids[slot], 0.0) : -postedAt[slot]; break; // no terms: NEWEST
+            case DISTANCE: v = ctx.hasCenter ? GeoGrid.distanceKm(ctx.centerLat, ctx.centerLng, lats[slot], lngs[slot]) : 0; break;
+            case PRICE_ASC: v = prices[slot]; break;
+            case PRICE_DESC: v = -prices[slot]; break;
+            case AREA_ASC: v = areas[slot]; break;
+            case AREA_DESC: v = -areas[slot]; break;
+            default: v = -postedAt[slot]; break; // NEWEST
+        }
+        return Double.isNaN(v) ? Double.POSITIVE_INFINITY : v;
+    }
+
+    private static double squaredDiff(double a, double b, double weight) {
+        if (Double.isNaN(a) || Double.isNaN(b)) return MISSING_PENALTY;
+        double diff = a - b;
+        return weight * diff * diff;
+    }
+
+    private static double countDiff(int a, int b, double weight) {
+        if (a == Integer.MIN_VALUE || b == Integer.MIN_VALUE) return MISSING_PENALTY;
+        double diff = Math.min(Math.abs(a - b), 5);
+        return weight * diff * diff;
+    }
+
+    // Rent prices scaled to a monthly figure so a DAILY chalet and a MONTHLY flat compare fairly
+    private static double logMonthlyPrice(Double price, Property.RentFrequency frequency) {
+        if (price == null || price < 0) return Double.NaN;
+        double monthly = price;
+        if (frequency != null) {
+            switch (frequency) {
+                case DAILY: monthly = price * 30; break;
+                case WEEKLY: monthly = price * 52 / 12; break;
+                case YEARLY: monthly = price / 12; break;
+                default: break; // MONTHLY, NONE (sale price)
+            }
+        }
+        return Math.log1p(monthly);
+    }
+
+    private static double logArea(Double area) {
+        return area != null && area >= 0 ? Math.log1p(area) : Double.NaN;
+    }
+
+    private static BitSet intersect(BitSet base, BitSet... masks) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) result.and(mask);
+        }
+        return result;
+    }
+
+    // Equal-width buckets between the smallest and largest value (NaN = NULL column, skipped)
+    private static List<PropertyFacetsDTO.HistogramBucket> histogram(double[] values, int count, int bucketCount) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(values[i])) continue;
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        if (min > max) return Collections.emptyList();
+
+        int buckets = min == max ? 1 : bucketCount;
+        double width = (max - min) / buckets;
+        long[] counts = new long[buckets];
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(values[i])) continue;
+            int b = width == 0 ? 0 : (int) ((values[i] - min) / width);
+            counts[Math.min(b, buckets - 1)]++;
+        }
+
+        List<PropertyFacetsDTO.HistogramBucket> result = new ArrayList<>(buckets);
+        for (int b = 0; b < buckets; b++) {
+            double from = min + b * width;
+            double to = b == buckets - 1 ? max : min + (b + 1) * width;
+            result.add(new PropertyFacetsDTO.HistogramBucket(from, to, counts[b]));
+        }
+        return result;
+    }
+
+    private static int compare(double keyA, long idA, double keyB, long idB) {
+        int byKey = Double.compare(keyA, keyB);
+        return byKey != 0 ? byKey : Long.compare(idA, idB);
+    }
+
+    // Scored before taking our lock, so the two indexes never hold each other's locks.
+    // Null = no text filter (no ?q=, or one made only of stop words / punctuation).
+    private Map<Long, Double> textScores(PropertySearchCriteria c) {
+        if (!c.hasTextQuery()) return null;
+        if (!textIndex.isReady()) {
+            throw new RuntimeException("Search is starting up, please try again in a moment.");
+        }
+        return textIndex.score(c.getQ());
+    }
+
+    // Caller must hold the read lock
+    private BitSet match(QueryContext ctx) {
+        PropertySearchCriteria c = ctx.criteria;
+
+        // 1. Categorical, text and grid filters: pure bitmap intersections
+        BitSet result = candidates(ctx);
+        if (c.getPurpose() != null) result.and(byPurpose[c.getPurpose().ordinal()]);
+        if (c.getType() != null) result.and(byType[c.getType().ordinal()]);
+        if (c.getRentFrequency() != null) result.and(byRentFrequency[c.getRentFrequency().ordinal()]);
+
+        // 2. Range, location and exact geo filters: one pass over the survivors
+        scan(result, ctx, true);
+        return result;
+    }
+
+    // Live slots narrowed by the text query and the geo grid (everything that doesn't need a per-row check)
+    private BitSet candidates(QueryContext ctx) {
+        BitSet result = (BitSet) live.clone();
+        if (ctx.scores != null) {
+            BitSet textHits = new BitSet();
+            for (Long id : ctx.scores.keySet()) {
+                Integer slot = slotById.get(id);
+                if (slot != null) textHits.set(slot);
+            }
+            result.and(textHits);
+        }
+        if (ctx.geo) {
+            BitSet inCells = geoGrid.candidates(ctx.minLat, ctx.maxLat, ctx.minLng, ctx.maxLng);
+            if (inCells != null) result.and(inCells);
+        }
+        return result;
+    }
+
+    // Clears every slot in 'result' that fails a range / location / geo filter
+    private void scan(BitSet result, QueryContext ctx, boolean applyBeds) {
+        PropertySearchCriteria c = ctx.criteria;
+        String loc = c.getLocation() != null ? c.getLocation().toLowerCase(Locale.ROOT) : null;
+        double minP = c.getMinPrice() != null ? c.getMinPrice() : Double.NEGATIVE_INFINITY;
+        double maxP = c.getMaxPrice() != null ? c.getMaxPrice() : Double.POSITIVE_INFINITY;
+        double minA = c.getMinArea() != null ? c.getMinArea() : Double.NEGATIVE_INFINITY;
+        double maxA = c.getMaxArea() != null ? c.getMaxArea() : Double.POSITIVE_INFINITY;
+        boolean priceFilter = c.getMinPrice() != null || c.getMaxPrice() != null;
+        boolean areaFilter = c.getMinArea() != null || c.getMaxArea() != null;
+
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+            boolean ok = (!priceFilter || (prices[slot] >= minP && prices[slot] <= maxP))
+                    && (!areaFilter || (areas[slot] >= minA && areas[slot] <= maxA))
+                    && (!applyBeds || c.getBeds() == null || roomCounts[slot] >= c.getBeds())
+                    && (c.getBaths() == null || bathCounts[slot] >= c.getBaths())
+                    && (loc == null || (locations[slot] != null && locations[slot].contains(loc)))
+                    && (!ctx.geo || matchesGeo(slot, ctx));
+            if (!ok) result.clear(slot);
+        }
+    }
+
+    private boolean matchesGeo(int slot, QueryContext ctx) {
+        double lat = lats[slot], lng = lngs[slot];
+        if (!(lat >= ctx.minLat && lat <= ctx.maxLat && lng >= ctx.minLng && lng <= ctx.maxLng)) return false;
+        PropertySearchCriteria c = ctx.criteria;
+        return !c.hasRadius() || GeoGrid.distanceKm(c.getLat(), c.getLng(), lat, lng) <= c.getRadiusKm();
+    }
+
+    // Per-query values derived once from the criteria (text scores, geo box and centre)
+    private static class QueryContext {
+        final PropertySearchCriteria criteria;
+        final Map<Long, Double> scores; // null when there is no text query
+
+        final boolean geo;
+        double minLat = -90, maxLat = 90, minLng = -180, maxLng = 180;
+        boolean hasCenter;
+        double centerLat, centerLng;
+
+        QueryContext(PropertySearchCriteria c, Map<Long, Double> scores) {
+            this.criteria = c;
+            this.scores = scores;
+            this.geo = c.hasGeoFilter();
+
+            if (c.hasRadius()) {
+                double dLat = GeoGrid.latDelta(c.getRadiusKm());
+                double dLng = GeoGrid.lngDelta(c.getRadiusKm(), c.getLat());
+                minLat = c.getLat() - dLat;
+                maxLat = c.getLat() + dLat;
+                minLng = c.getLng() - dLng;
+                maxLng = c.getLng() + dLng;
+                hasCenter = true;
+                centerLat = c.getLat();
+                centerLng = c.getLng();
+            }
+            if (c.hasBoundingBox()) {
+                minLat = Math.max(minLat, c.getMinLat());
+                maxLat = Math.min(maxLat, c.getMaxLat());
+                minLng = Math.max(minLng, c.getMinLng());
+                maxLng = Math.min(maxLng, c.getMaxLng());
+                if (!hasCenter) {
+                    hasCenter = true;
+                    centerLat = (c.getMinLat() + c.getMaxLat()) / 2;
+                    centerLng = (c.getMinLng() + c.getMaxLng()) / 2;
+                }
+            }
+        }
+    }
+
+    // ==========================================
+    // 2. SYNC WITH THE DATABASE
+    // ==========================================
+
+    // Changes committed while this runs are replayed after the swap (see RebuildBuffer)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        rebuildBuffer.start();
+        List<PropertyIndexRow> active = propertyRepository.findIndexRowsByStatus(Property.Status.ACTIVE);
+        lock.writeLock().lock();
+        try {
+            slotById.clear();
+            freeSlots.clear();
+            live.clear();
+            for (BitSet b : byType) b.clear();
+            for (BitSet b : byPurpose) b.clear();
+            for (BitSet b : byRentFrequency) b.clear();
+            geoGrid.clear();
+            locationDictionary.clear();
+            highWaterMark = 0;
+            active.forEach(this::upsertLocked);
+            rebuildBuffer.finish().forEach(this::applyLocked);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Runs after the writing transaction commits (or immediately if there was none)
+    @Order(0) // before SearchResultCache invalidates, so re-cached results already see this change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (rebuildBuffer.defer(event)) return;
+        lock.writeLock().lock();
+        try {
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(PropertyChangedEvent event) {
+        Property p = event.getProperty();
+        if (p == null || p.getStatus() != Property.Status.ACTIVE) {
+            removeLocked(event.getPropertyId());
+        } else {
+            upsertLocked(PropertyIndexRow.of(p));
+        }
+    }
+
+    private void removeLocked(Long propertyId) {
+        Integer slot = slotById.remove(propertyId);
+        if (slot == null) return;
+        clearSlot(slot);
+        freeSlots.push(slot);
+    }
+
+    private void upsertLocked(PropertyIndexRow p) {
+        Integer slot = slotById.get(p.getPropertyId());
+        if (slot != null) {
+            clearSlot(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? highWaterMark++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slotById.put(p.getPropertyId(), slot);
+        }
+
+        ids[slot] = p.getPropertyId();
+        prices[slot] = p.getPrice() != null ? p.getPrice() : Double.NaN;
+        areas[slot] = p.getArea() != null ? p.getArea() : Double.NaN;
+        roomCounts[slot] = p.getRoomCount() != null ? p.getRoomCount() : Integer.MIN_VALUE;
+        bathCounts[slot] = p.getBathCount() != null ? p.getBathCount() : Integer.MIN_VALUE;
+        locations[slot] = p.getLocation() != null ? p.getLocation().toLowerCase(Locale.ROOT) : null;
+        postedAt[slot] = p.getDatePosted() != null ? p.getDatePosted().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+        lats[slot] = p.getLatitude() != null && p.getLongitude() != null ? p.getLatitude() : Double.NaN;
+        lngs[slot] = p.getLatitude() != null && p.getLongitude() != null ? p.getLongitude() : Double.NaN;
+        if (!Double.isNaN(lats[slot])) geoGrid.add(slot, lats[slot], lngs[slot]);
+        logMonthlyPrices[slot] = logMonthlyPrice(p.getPrice(), p.getRentFrequency());
+        logAreas[slot] = logArea(p.getArea());
+        locationCodes[slot] = locationDictionary.acquire(p.getLocation());
+
+        if (p.getType() != null) byType[p.getType().ordinal()].set(slot);
+        if (p.getPurpose() != null) byPurpose[p.getPurpose().ordinal()].set(slot);
+        if (p.getRentFrequency() != null) byRentFrequency[p.getRentFrequency().ordinal()].set(slot);
+        live.set(slot);
+    }
+
+    private void clearSlot(int slot) {
+        if (!Double.isNaN(lats[slot])) geoGrid.remove(slot, lats[slot], lngs[slot]);
+        lats[slot] = Double.NaN;
+        live.clear(slot);
+        for (BitSet b : byType) b.clear(slot);
+        for (BitSet b : byPurpose) b.clear(slot);
+        for (BitSet b : byRentFrequency) b.clear(slot);
+        locations[slot] = null;
+        locationDictionary.release(locationCodes[slot]);
+        locationCodes[slot] = -1;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int newCapacity = Math.max(needed, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        prices = Arrays.copyOf(prices, newCapacity);
+        areas = Arrays.copyOf(areas, newCapacity);
+        roomCounts = Arrays.copyOf(roomCounts, newCapacity);
+        bathCounts = Arrays.copyOf(bathCounts, newCapacity);
+        locations = Arrays.copyOf(locations, newCapacity);
+        postedAt = Arrays.copyOf(postedAt, newCapacity);
+        lats = Arrays.copyOf(lats, newCapacity);
+        lngs = Arrays.copyOf(lngs, newCapacity);
+        logMonthlyPrices = Arrays.copyOf(logMonthlyPrices, newCapacity);
+        logAreas = Arrays.copyOf(logAreas, newCapacity);
+        locationCodes = Arrays.copyOf(locationCodes, newCapacity);
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) sets[i] = new BitSet();
+        return sets;
+    }
+
+    /**
+     * Location -> small int code for similar(). Codes are reference-counted by the slots using them:
+     * when the last listing in a location goes, its code is freed and handed to the next new location,
+     * so the dictionary stays as big as the set of live locations instead of every location ever seen.
+     */
+    private static class LocationDictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> keys = new ArrayList<>(); // code -> location (null when free)
+        private int[] uses = new int[64];
+        private final Deque<Integer> freeCodes = new ArrayDeque<>();
+
+        // -1 if no live listing is in that location
+        int codeOf(String location) {
+            String key = keyOf(location);
+            Integer code = key != null ? codes.get(key) : null;
+            return code != null ? code : -1;
+        }
+
+        int acquire(String location) {
+            String key = keyOf(location);
+            if (key == null) return -1;
+
+            Integer code = codes.get(key);
+            if (code == null) {
+                if (freeCodes.isEmpty()) {
+                    code = keys.size();
+                    keys.add(key);
+                    if (code >= uses.length) uses = Arrays.copyOf(uses, uses.length * 2);
+                } else {
+                    code = freeCodes.pop();
+                    keys.set(code, key);
+                }
+                codes.put(key, code);
+            }
+            uses[code]++;
+            return code;
+        }
+
+        void release(int code) {
+            if (code < 0 || --uses[code] > 0) return;
+            codes.remove(keys.get(code));
+            keys.set(code, null);
+            freeCodes.push(code);
+        }
+
+        void clear() {
+            codes.clear();
+            keys.clear();
+            Arrays.fill(uses, 0);
+            freeCodes.clear();
+        }
+
+        private static String keyOf(String location) {
+            return location != null ? location.trim().toLowerCase(Locale.ROOT) : null;
+        }
+    }
+}
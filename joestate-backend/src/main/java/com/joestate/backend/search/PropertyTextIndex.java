@@ -0,0 +1,153 @@
+package com.joestate.backend.search;
+
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.repositories.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the title and description of ACTIVE listings, ranked with BM25.
+ *
+ * Title terms count {@link #TITLE_BOOST} times, so a match in the title outranks the same word
+ * buried in a long description. Kept in sync incrementally from {@link PropertyChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PropertyTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 3;
+
+    private final PropertyRepository propertyRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (propertyId -> term frequency)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    // propertyId -> document length (in weighted terms), plus its distinct terms for removal
+    private final Map<Long, Integer> docLengths = new HashMap<>();
+    private final Map<Long, Set<String>> termsByDoc = new HashMap<>();
+    private long totalLength = 0;
+
+    private volatile boolean ready = false;
+    private final RebuildBuffer<PropertyChangedEvent> rebuildBuffer = new RebuildBuffer<>();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==========================================
+    // 1. QUERY
+    // ==========================================
+
+    // BM25 score of every listing that contains at least one of the query terms.
+    // Null when the query has no terms left after analysis (q=the, q=--): that is no text query at all, not "match nothing".
+    public Map<Long, Double> score(String query) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.tokenize(query));
+        if (terms.isEmpty()) return null;
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int docCount = docLengths.size();
+            if (docCount == 0) return scores;
+            double avgLength = (double) totalLength / docCount;
+
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) continue;
+
+                double idf = Math.log(1 + (docCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Integer> e : posting.entrySet()) {
+                    int tf = e.getValue();
+                    double norm = K1 * (1 - B + B * docLengths.get(e.getKey()) / avgLength);
+                    scores.merge(e.getKey(), idf * (tf * (K1 + 1)) / (tf + norm), Double::sum);
+                }
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // 2. SYNC WITH THE DATABASE
+    // ==========================================
+
+    // Changes committed while this runs are replayed after the swap (see RebuildBuffer)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        rebuildBuffer.start();
+        List<Object[]> rows = propertyRepository.findIdTitleAndDescriptionByStatus(Property.Status.ACTIVE);
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docLengths.clear();
+            termsByDoc.clear();
+            totalLength = 0;
+            for (Object[] row : rows) addLocked((Long) row[0], (String) row[1], (String) row[2]);
+            rebuildBuffer.finish().forEach(this::applyLocked);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0) // before SearchResultCache invalidates, so re-cached results already see this change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (rebuildBuffer.defer(event)) return;
+        lock.writeLock().lock();
+        try {
+            applyLocked(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(PropertyChangedEvent event) {
+        Property p = event.getProperty();
+        removeLocked(event.getPropertyId());
+        if (p != null && p.getStatus() == Property.Status.ACTIVE) {
+            addLocked(p.getPropertyId(), p.getTitle(), p.getDescription());
+        }
+    }
+
+    private void addLocked(Long propertyId, String title, String description) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (String term : TextAnalyzer.tokenize(title)) tf.merge(term, TITLE_BOOST, Integer::sum);
+        for (String term : TextAnalyzer.tokenize(description)) tf.merge(term, 1, Integer::sum);
+        if (tf.isEmpty()) return;
+
+        int length = 0;
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), t -> new HashMap<>()).put(propertyId, e.getValue());
+            length += e.getValue();
+        }
+        docLengths.put(propertyId, length);
+        termsByDoc.put(propertyId, tf.keySet());
+        totalLength += length;
+    }
+
+    private void removeLocked(Long propertyId) {
+        Set<String> terms = termsByDoc.remove(propertyId);
+        if (terms == null) return;
+
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(propertyId);
+            if (posting.isEmpty()) postings.remove(term);
+        }
+        totalLength -= docLengths.remove(propertyId);
+    }
+}
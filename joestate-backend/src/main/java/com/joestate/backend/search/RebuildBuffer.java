@@ -0,0 +1,36 @@
+package com.joestate.backend.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the changes that reach an in-memory index while it is reloading from the database.
+ *
+ * A rebuild reads its rows first and only then takes the write lock to swap them in, so a change
+ * applied in between would be wiped by the older rows. Instead, changes are parked here from the
+ * moment the rebuild starts and replayed (in arrival order, under the write lock) right after the swap.
+ */
+class RebuildBuffer<T> {
+
+    private List<T> pending; // non-null while a rebuild is in flight
+
+    // Call before reading the rows
+    synchronized void start() {
+        pending = new ArrayList<>();
+    }
+
+    // True if the change was parked for the running rebuild; false means the caller applies it now
+    synchronized boolean defer(T change) {
+        if (pending == null) return false;
+        pending.add(change);
+        return true;
+    }
+
+    // Call under the write lock, after the swap: the changes to replay on top of the fresh rows
+    synchronized List<T> finish() {
+        List<T> result = pending != null ? pending : Collections.emptyList();
+        pending = null;
+        return result;
+    }
+}
@@ -0,0 +1,308 @@
+package com.joestate.backend.search;
+
+import com.joestate.backend.dto.PropertySearchCriteria;
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.entities.SavedSearch;
+import com.joestate.backend.repositories.SavedSearchRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reverse search: instead of running every saved search against the listings, we run one new
+ * listing against the saved searches.
+ *
+ * Every filter a saved search sets is one predicate, and each predicate is indexed so a listing can
+ * look up the searches it satisfies directly:
+ *  - purpose / type / rent frequency: value -> searches asking for exactly that value
+ *  - location: the search's location is filed under its leading n-gram; a listing looks up every
+ *    1/2/3-gram of its own location and keeps the ones that are really a substring of it
+ *  - price / area / beds / baths: each bound in a map sorted by the bound, so "min <= value" is a
+ *    head range and "max >= value" a tail range
+ * Each lookup counts a hit per search, and a search matches when its hit count equals the number of
+ * filters it sets (searches with no filters at all match everything). Searches that fail any predicate
+ * are never visited one by one; the few that pass are confirmed with {@link PropertySearchCriteria#matches}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SavedSearchPercolator {
+
+    private static final int MAX_GRAM = 3;
+
+    private final SavedSearchRepository savedSearchRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    // Searches without a single filter
+    private final Set<Long> matchAll = new HashSet<>();
+
+    // Equality predicates
+    private final Map<Property.Purpose, Set<Long>> byPurpose = new EnumMap<>(Property.Purpose.class);
+    private final Map<Property.PropertyType, Set<Long>> byType = new EnumMap<>(Property.PropertyType.class);
+    private final Map<Property.RentFrequency, Set<Long>> byRentFrequency = new EnumMap<>(Property.RentFrequency.class);
+
+    // Location predicate: lower-cased location -> searches, and leading gram -> locations
+    private final Map<String, Set<Long>> byLocation = new HashMap<>();
+    private final Map<String, Set<String>> locationGrams = new HashMap<>();
+
+    // Range predicates, sorted by the bound
+    private final NavigableMap<Double, Set<Long>> byMinPrice = new TreeMap<>();
+    private final NavigableMap<Double, Set<Long>> byMaxPrice = new TreeMap<>();
+    private final NavigableMap<Double, Set<Long>> byMinArea = new TreeMap<>();
+    private final NavigableMap<Double, Set<Long>> byMaxArea = new TreeMap<>();
+    private final NavigableMap<Double, Set<Long>> byMinBeds = new TreeMap<>();
+    private final NavigableMap<Double, Set<Long>> byMinBaths = new TreeMap<>();
+
+    // Saved searches added or deleted while a rebuild is loading (replayed after the swap)
+    private final RebuildBuffer<Runnable> rebuildBuffer = new RebuildBuffer<>();
+
+    // ==========================================
+    // 1. MATCHING
+    // ==========================================
+
+    // One match per user, even if several of their saved searches accept this listing
+    public Collection<Match> match(Property p) {
+        Map<Long, Match> matches = new LinkedHashMap<>();
+        if (p.getStatus() != Property.Status.ACTIVE) return matches.values();
+
+        lock.readLock().lock();
+        try {
+            // Saved search ID -> how many of its predicates this listing satisfies
+            Map<Long, Integer> hits = new HashMap<>();
+            count(hits, byPurpose.get(p.getPurpose()));
+            count(hits, byType.get(p.getType()));
+            count(hits, byRentFrequency.get(p.getRentFrequency()));
+            countLocation(hits, p.getLocation());
+            countAtLeast(hits, byMinPrice, byMaxPrice, p.getPrice());
+            countAtLeast(hits, byMinArea, byMaxArea, p.getArea());
+            countAtLeast(hits, byMinBeds, null, p.getRoomCount() != null ? p.getRoomCount().doubleValue() : null);
+            countAtLeast(hits, byMinBaths, null, p.getBathCount() != null ? p.getBathCount().doubleValue() : null);
+
+            for (Long id : matchAll) accept(matches, entries.get(id), p);
+            for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+                Entry entry = entries.get(hit.getKey());
+                if (hit.getValue() == entry.predicates) accept(matches, entry, p);
+            }
+            return matches.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void accept(Map<Long, Match> matches, Entry entry, Property p) {
+        if (!matches.containsKey(entry.userId) && entry.criteria.matches(p)) {
+            matches.put(entry.userId, new Match(entry.userId, entry.email, entry.name));
+        }
+    }
+
+    private static void count(Map<Long, Integer> hits, Set<Long> ids) {
+        if (ids == null) return;
+        for (Long id : ids) hits.merge(id, 1, Integer::sum);
+    }
+
+    // Saved locations are substrings of the listing's location, so each one sits under one of its grams
+    private void countLocation(Map<Long, Integer> hits, String location) {
+        if (location == null || locationGrams.isEmpty()) return;
+        String haystack = location.toLowerCase(Locale.ROOT);
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (String gram : LocationSuggestionIndex.gramsOf(haystack, n)) {
+                Set<String> keys = locationGrams.get(gram);
+                if (keys == null) continue;
+                for (String key : keys) {
+                    if (haystack.contains(key)) count(hits, byLocation.get(key));
+                }
+            }
+        }
+    }
+
+    // Lower bounds at or below the value, upper bounds at or above it
+    private static void countAtLeast(Map<Long, Integer> hits, NavigableMap<Double, Set<Long>> mins,
+                                     NavigableMap<Double, Set<Long>> maxes, Double value) {
+        if (value == null) return;
+        for (Set<Long> ids : mins.headMap(value, true).values()) count(hits, ids);
+        if (maxes != null) {
+            for (Set<Long> ids : maxes.tailMap(value, true).values()) count(hits, ids);
+        }
+    }
+
+    // ==========================================
+    // 2. SYNC WITH THE DATABASE
+    // ==========================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        rebuildBuffer.start();
+        List<SavedSearch> all = savedSearchRepository.findAllWithUser();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            matchAll.clear();
+            byPurpose.clear();
+            byType.clear();
+            byRentFrequency.clear();
+            byLocation.clear();
+            locationGrams.clear();
+            byMinPrice.clear();
+            byMaxPrice.clear();
+            byMinArea.clear();
+            byMaxArea.clear();
+            byMinBeds.clear();
+            byMinBaths.clear();
+            for (SavedSearch s : all) addLocked(s);
+            rebuildBuffer.finish().forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(SavedSearch s) {
+        apply(() -> {
+            removeLocked(s.getSavedSearchId());
+            addLocked(s);
+        });
+    }
+
+    public void remove(Long savedSearchId) {
+        apply(() -> removeLocked(savedSearchId));
+    }
+
+    private void apply(Runnable change) {
+        if (rebuildBuffer.defer(change)) return;
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(SavedSearch s) {
+        Long id = s.getSavedSearchId();
+        Entry entry = new Entry(s.getUser().getUserId(), s.getUser().getEmail(), s.getName(), toCriteria(s));
+        entries.put(id, entry);
+        if (entry.predicates == 0) {
+            matchAll.add(id);
+            return;
+        }
+
+        PropertySearchCriteria c = entry.criteria;
+        post(byPurpose, c.getPurpose(), id);
+        post(byType, c.getType(), id);
+        post(byRentFrequency, c.getRentFrequency(), id);
+        if (entry.locationKey != null) {
+            post(byLocation, entry.locationKey, id);
+            locationGrams.computeIfAbsent(leadingGram(entry.locationKey), g -> new HashSet<>()).add(entry.locationKey);
+        }
+        post(byMinPrice, c.getMinPrice(), id);
+        post(byMaxPrice, c.getMaxPrice(), id);
+        post(byMinArea, toDouble(c.getMinArea()), id);
+        post(byMaxArea, toDouble(c.getMaxArea()), id);
+        post(byMinBeds, toDouble(c.getBeds()), id);
+        post(byMinBaths, toDouble(c.getBaths()), id);
+    }
+
+    private void removeLocked(Long savedSearchId) {
+        Entry entry = entries.remove(savedSearchId);
+        if (entry == null) return;
+        if (entry.predicates == 0) {
+            matchAll.remove(savedSearchId);
+            return;
+        }
+
+        PropertySearchCriteria c = entry.criteria;
+        unpost(byPurpose, c.getPurpose(), savedSearchId);
+        unpost(byType, c.getType(), savedSearchId);
+        unpost(byRentFrequency, c.getRentFrequency(), savedSearchId);
+        if (entry.locationKey != null && unpost(byLocation, entry.locationKey, savedSearchId)) {
+            // Last search on this location: it no longer needs its gram
+            unpost(locationGrams, leadingGram(entry.locationKey), entry.locationKey);
+        }
+        unpost(byMinPrice, c.getMinPrice(), savedSearchId);
+        unpost(byMaxPrice, c.getMaxPrice(), savedSearchId);
+        unpost(byMinArea, toDouble(c.getMinArea()), savedSearchId);
+        unpost(byMaxArea, toDouble(c.getMaxArea()), savedSearchId);
+        unpost(byMinBeds, toDouble(c.getBeds()), savedSearchId);
+        unpost(byMinBaths, toDouble(c.getBaths()), savedSearchId);
+    }
+
+    // ==========================================
+    // 3. HELPERS
+    // ==========================================
+
+    private static <K, V> void post(Map<K, Set<V>> index, K key, V value) {
+        if (key != null) index.computeIfAbsent(key, k -> new HashSet<>()).add(value);
+    }
+
+    // True if that was the last value under the key (the key is gone now)
+    private static <K, V> boolean unpost(Map<K, Set<V>> index, K key, V value) {
+        if (key == null) return false;
+        Set<V> values = index.get(key);
+        if (values == null) return false;
+        values.remove(value);
+        if (!values.isEmpty()) return false;
+        index.remove(key);
+        return true;
+    }
+
+    private static String leadingGram(String locationKey) {
+        return locationKey.substring(0, Math.min(MAX_GRAM, locationKey.length()));
+    }
+
+    private static Double toDouble(Integer value) {
+        return value != null ? value.doubleValue() : null;
+    }
+
+    private static PropertySearchCriteria toCriteria(SavedSearch s) {
+        return PropertySearchCriteria.builder()
+                .location(s.getLocation())
+                .purpose(s.getPurpose())
+                .type(s.getType())
+                .rentFrequency(s.getRentFrequency())
+                .minPrice(s.getMinPrice())
+                .maxPrice(s.getMaxPrice())
+                .minArea(s.getMinArea())
+                .maxArea(s.getMaxArea())
+                .beds(s.getBeds())
+                .baths(s.getBaths())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final Long userId;
+        private final String email;
+        private final String searchName;
+    }
+
+    private static class Entry {
+        final Long userId;
+        final String email;
+        final String name;
+        final PropertySearchCriteria criteria;
+        final String locationKey; // lower-cased, null if the search doesn't filter on location
+        final int predicates;     // how many filters it sets = hits needed to match
+
+        Entry(Long userId, String email, String name, PropertySearchCriteria criteria) {
+            this.userId = userId;
+            this.email = email;
+            this.name = name;
+            this.criteria = criteria;
+            this.locationKey = criteria.getLocation() != null && !criteria.getLocation().isEmpty()
+                    ? criteria.getLocation().toLowerCase(Locale.ROOT) : null;
+            this.predicates = (int) Arrays.asList(
+                    criteria.getPurpose(), criteria.getType(), criteria.getRentFrequency(), locationKey,
+                    criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getMinArea(), criteria.getMaxArea(),
+                    criteria.getBeds(), criteria.getBaths()
+            ).stream().filter(Objects::nonNull).count();
+        }
+    }
+}
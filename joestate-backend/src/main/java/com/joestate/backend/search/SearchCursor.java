@@ -0,0 +1,40 @@
+package com.joestate.backend.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a sorted result: the (sortKey, propertyId) of the last row the client has seen.
+ * Sent to the client as an opaque URL-safe token so the next page starts right after it,
+ * instead of using OFFSET (which gets slower the deeper you scroll).
+ */
+@Getter
+@AllArgsConstructor
+public class SearchCursor {
+
+    private final SearchSort sort;
+    private final double sortKey;
+    private final long propertyId;
+
+    public String encode() {
+        String raw = sort.name() + "|" + sortKey + "|" + propertyId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token, SearchSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            SearchSort sort = SearchSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("sort mismatch");
+            }
+            return new SearchCursor(sort, Double.parseDouble(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid page token. Please restart the search.");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.joestate.backend.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// One page of matching property IDs (already in sort order) plus the cursor for the next page
+@Getter
+@AllArgsConstructor
+public class SearchPage {
+    private final List<Long> ids;
+    private final SearchCursor nextCursor; // null when this is the last page
+}
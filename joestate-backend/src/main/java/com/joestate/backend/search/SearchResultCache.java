@@ -0,0 +1,148 @@
+package com.joestate.backend.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.joestate.backend.dto.PropertySearchCriteria;
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.events.PropertyChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded (W-TinyLFU) cache of search results in front of {@link PropertySearchIndex}.
+ *
+ * Keys are the normalized filter set (plus the sort for first pages); values are only property IDs,
+ * so per-user data like isFavorite is still applied by PropertyService after the lookup.
+ * Invalidation is precise: when a listing changes we only drop the entries that contained it before,
+ * or whose filters it matches now.
+ */
+@Component
+public class SearchResultCache {
+
+    private final PropertySearchIndex searchIndex;
+    private final Cache<CacheKey, CachedResult> cache;
+
+    // Bumped on every listing write. A result computed while a write was in flight is not stored,
+    // so a slow reader can't put back an entry the write just invalidated.
+    private final AtomicLong writeVersion = new AtomicLong();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SearchResultCache(
+            PropertySearchIndex searchIndex,
+            @Value("${joestate.search-cache.max-entries:10000}") long maxEntries,
+            @Value("${joestate.search-cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.searchIndex = searchIndex;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // ==========================================
+    // 1. CACHED READS
+    // ==========================================
+
+    public List<Long> search(PropertySearchCriteria criteria) {
+        CacheKey key = new CacheKey(criteria.normalized(), null, 0);
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null) return cached.ids;
+
+        long version = writeVersion.get();
+        List<Long> ids = searchIndex.search(key.criteria);
+        putIfUnchanged(key, new CachedResult(ids, null), version);
+        return ids;
+    }
+
+    // Only first pages are cached: they take almost all the traffic, deep pages would just churn the cache
+    public SearchPage page(PropertySearchCriteria criteria, SearchSort sort, SearchCursor after, int size) {
+        if (after != null) return searchIndex.page(criteria, sort, after, size);
+
+        CacheKey key = new CacheKey(criteria.normalized(), sort, size);
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached != null) return new SearchPage(cached.ids, cached.nextCursor);
+
+        long version = writeVersion.get();
+        SearchPage page = searchIndex.page(key.criteria, sort, null, size);
+        putIfUnchanged(key, new CachedResult(page.getIds(), page.getNextCursor()), version);
+        return page;
+    }
+
+    private void putIfUnchanged(CacheKey key, CachedResult result, long version) {
+        if (writeVersion.get() == version) cache.put(key, result);
+    }
+
+    // ==========================================
+    // 2. INVALIDATION (after the indexes have applied the change)
+    // ==========================================
+
+    // Runs after the index listeners (@Order(0)), so anything recomputed after this sees the new data
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        writeVersion.incrementAndGet();
+
+        Long id = event.getPropertyId();
+        Property p = event.getProperty();
+        boolean nowActive = p != null && p.getStatus() == Property.Status.ACTIVE;
+
+        cache.asMap().entrySet().removeIf(e -> {
+            boolean affected = e.getValue().contains(id) || (nowActive && e.getKey().criteria.matches(p));
+            if (affected) invalidations.increment();
+            return affected;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.sum());
+        return result;
+    }
+
+    // sort == null means the unpaginated /search list
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class CacheKey {
+        final PropertySearchCriteria criteria;
+        final SearchSort sort;
+        final int size;
+    }
+
+    private static class CachedResult {
+        final List<Long> ids;
+        final SearchCursor nextCursor;
+        final long[] sortedIds; // for O(log n) membership checks during invalidation
+
+        CachedResult(List<Long> ids, SearchCursor nextCursor) {
+            this.ids = Collections.unmodifiableList(ids);
+            this.nextCursor = nextCursor;
+            this.sortedIds = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        boolean contains(Long id) {
+            return Arrays.binarySearch(sortedIds, id) >= 0;
+        }
+    }
+}
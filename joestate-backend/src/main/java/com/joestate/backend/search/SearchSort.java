@@ -0,0 +1,12 @@
+package com.joestate.backend.search;
+
+// Sort modes for the paginated search. Ties are always broken by propertyId so the order is total.
+public enum SearchSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC,
+    AREA_ASC,
+    AREA_DESC,
+    RELEVANCE, // BM25 score of the ?q= text query, best first
+    DISTANCE   // closest to the radius centre (or the viewport centre) first
+}
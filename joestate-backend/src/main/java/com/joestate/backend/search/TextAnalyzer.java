@@ -0,0 +1,100 @@
+package com.joestate.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns listing text (and search queries) into index terms. Listings are written in Arabic,
+ * English or both, so both go through the same pipeline:
+ *  1. lower-case, strip Arabic diacritics / tatweel, unify alef / yeh / teh-marbuta forms, Arabic-Indic digits -> ASCII
+ *  2. split on anything that isn't a letter or digit
+ *  3. drop stop words, then apply a light prefix/suffix stemmer ("الشقة" -> "شقه", "apartments" -> "apartment")
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "and", "or", "in", "of", "for", "with", "to", "on", "at", "is", "by",
+            "في", "من", "علي", "الي", "عن", "مع", "و", "او", "ان"
+    );
+
+    private static final String[] ARABIC_PREFIXES = { "وال", "بال", "كال", "فال", "لل", "ال" };
+    private static final String[] ARABIC_SUFFIXES = { "ات", "ان", "ون", "ين", "ها", "يه", "ه", "ي" };
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) return terms;
+
+        String normalized = normalize(text);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                String term = stem(current.toString());
+                if (!term.isEmpty() && !STOP_WORDS.contains(term)) terms.add(term);
+                current.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if ((c >= '\u064B' && c <= '\u0652') || c == '\u0670' || c == '\u0640') continue; // harakat, dagger alef, tatweel
+            switch (c) {
+                case 'أ': case 'إ': case 'آ': case 'ٱ': sb.append('ا'); break;
+                case 'ى': case 'ئ': sb.append('ي'); break;
+                case 'ؤ': sb.append('و'); break;
+                case 'ة': sb.append('ه'); break;
+                default:
+                    if (c >= '\u0660' && c <= '\u0669') sb.append((char) ('0' + (c - '\u0660'))); // Arabic-Indic digits
+                    else sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String stem(String term) {
+        if (STOP_WORDS.contains(term)) return term;
+        return isArabic(term) ? stemArabic(term) : stemEnglish(term);
+    }
+
+    private static String stemArabic(String term) {
+        for (String prefix : ARABIC_PREFIXES) {
+            if (term.startsWith(prefix) && term.length() - prefix.length() >= 2) {
+                term = term.substring(prefix.length());
+                break;
+            }
+        }
+        for (String suffix : ARABIC_SUFFIXES) {
+            if (term.endsWith(suffix) && term.length() - suffix.length() >= 3) {
+                term = term.substring(0, term.length() - suffix.length());
+                break;
+            }
+        }
+        return term;
+    }
+
+    private static String stemEnglish(String term) {
+        if (term.length() <= 3) return term;
+        if (term.endsWith("ies")) return term.substring(0, term.length() - 3) + "y";
+        if (term.endsWith("sses") || term.endsWith("xes") || term.endsWith("ches") || term.endsWith("shes")) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.endsWith("s") && !term.endsWith("ss")) return term.substring(0, term.length() - 1);
+        return term;
+    }
+
+    private static boolean isArabic(String term) {
+        return Character.UnicodeBlock.of(term.charAt(0)) == Character.UnicodeBlock.ARABIC;
+    }
+}
@@ -0,0 +1,110 @@
+package com.joestate.backend.security;
+
+import com.joestate.backend.chat.ChatSession;
+import com.joestate.backend.chat.ChatSessionRegistry;
+import com.joestate.backend.dto.ChatSender;
+import com.joestate.backend.entities.User;
+import com.joestate.backend.repositories.UserRepository;
+import com.joestate.backend.services.ChatService;
+import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The WebSocket counterpart of {@link AuthTokenFilter}: STOMP frames don't go through the HTTP filter chain,
+ * so the client sends its JWT as an Authorization header on CONNECT. It is checked once per connection;
+ * the user is then kept in the session as a {@link ChatSession}, and later frames are checked against that.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final String THREAD_TOPIC = "/topic/thread/";
+    private static final String USER_TOPIC = "/topic/user/";
+
+    private final JwtUtils jwtUtils;
+    private final UserRepository userRepository;
+    private final ChatSessionRegistry sessionRegistry;
+    private final ChatService chatService;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) return message;
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            authenticate(accessor);
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(accessor);
+        }
+        return message;
+    }
+
+    // ==========================================
+    // 1. CONNECT: validate the JWT, load the user once
+    // ==========================================
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String jwt = parseJwt(accessor.getFirstNativeHeader("Authorization"));
+        if (jwt == null || !jwtUtils.validateJwtToken(jwt)) {
+            throw new BadCredentialsException("Missing or invalid token");
+        }
+
+        ChatSender user = userRepository.findChatSenderByEmail(jwtUtils.getUserNameFromJwtToken(jwt))
+                .orElseThrow(() -> new BadCredentialsException("User not found"));
+        if (user.getBanStatus() == User.BanStatus.BANNED) {
+            throw new LockedException("This account has been permanently banned by an Administrator.");
+        }
+
+        ChatSession session = new ChatSession(user);
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null) throw new BadCredentialsException("No WebSocket session");
+        attributes.put(ChatSession.ATTRIBUTE, session);
+        sessionRegistry.register(session);
+
+        accessor.setUser(new UsernamePasswordAuthenticationToken(user.getEmail(), null, Collections.emptyList()));
+    }
+
+    private String parseJwt(String headerAuth) {
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+        return null;
+    }
+
+    // ==========================================
+    // 2. SUBSCRIBE: only your own channel and your own threads
+    // ==========================================
+
+    private void checkSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) return;
+
+        if (destination.startsWith(USER_TOPIC)) {
+            if (!destination.substring(USER_TOPIC.length()).equals(ChatSession.of(accessor).getEmail())) {
+                throw new RuntimeException("Unauthorized to subscribe to " + destination);
+            }
+        } else if (destination.startsWith(THREAD_TOPIC)) {
+            Long threadId;
+            try {
+                threadId = Long.valueOf(destination.substring(THREAD_TOPIC.length()));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Unknown chat thread");
+            }
+            chatService.getThreadFor(threadId, ChatSession.of(accessor)); // throws if not a participant
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.joestate.backend.services;
 
+import com.joestate.backend.chat.ChatIngestPipeline;
 import com.joestate.backend.entities.Property;
 import com.joestate.backend.entities.Report;
 import com.joestate.backend.entities.User;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.events.UserBanChangedEvent;
 import com.joestate.backend.repositories.PropertyRepository;
 import com.joestate.backend.repositories.ReportRepository;
 import com.joestate.backend.repositories.VerificationRequestRepository;
 import com.joestate.backend.repositories.UserRepository;
+import com.joestate.backend.media.MediaMetrics;
+import com.joestate.backend.media.OrphanMediaCollector;
+import com.joestate.backend.search.SearchResultCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +29,11 @@ public class AdminService {
     private final ReportRepository reportRepository;
     private final VerificationRequestRepository verificationRequestRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchResultCache searchCache;
+    private final MediaMetrics mediaMetrics;
+    private final OrphanMediaCollector orphanMediaCollector;
+    private final ChatIngestPipeline chatIngestPipeline;
 
     // ==========================================
     // 1. DASHBOARD & TELEMETRY
@@ -39,6 +51,22 @@ public class AdminService {
         return kpis;
     }
 
+    public java.util.Map<String, Object> getSearchCacheStats() {
+        return searchCache.getStats();
+    }
+
+    public java.util.Map<String, Object> getMediaStats() {
+        return mediaMetrics.getStats();
+    }
+
+    public java.util.Map<String, Object> getChatPipelineStats() {
+        return chatIngestPipeline.getStats();
+    }
+
+    public java.util.Map<String, Object> getMediaGcReport() {
+        return orphanMediaCollector.getLastReport();
+    }
+
     public List<java.util.Map<String, Object>> getRecentActivity() {
         List<java.util.Map<String, Object>> activities = new java.util.ArrayList<>();
 
@@ -101,10 +129,16 @@ public class AdminService {
 
         if (newStatus == com.joestate.backend.entities.User.BanStatus.BANNED) {
             List<Property> userProperties = propertyRepository.findAllByOwner_UserId(userId);
-            for (Property p : userProperties) p.setStatus(Property.Status.SUSPENDED);
+            List<PropertyChangedEvent> events = new java.util.ArrayList<>();
+            for (Property p : userProperties) {
+                events.add(PropertyChangedEvent.statusChanged(p, p.getStatus()));
+                p.setStatus(Property.Status.SUSPENDED);
+            }
             propertyRepository.saveAll(userProperties);
+            events.forEach(eventPublisher::publishEvent);
         }
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserBanChangedEvent(userId, newStatus));
 
         Report auditLog = new Report();
         auditLog.setType(Report.ReportType.USER);
@@ -159,6 +193,7 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Admin not found"));
 
         String actionTaken;
+        com.joestate.backend.entities.Property.Status previousStatus = property.getStatus();
 
         // Toggle Status & Send Notification
         if (property.getStatus() == com.joestate.backend.entities.Property.Status.SUSPENDED) {
@@ -171,6 +206,7 @@ public class AdminService {
             notificationService.createSystemAlertNotification(property.getOwner(), "URGENT: Your property '" + property.getTitle() + "' has been suspended by the Trust & Safety team.", property.getPropertyId());
         }
         propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.statusChanged(property, previousStatus));
 
         // CREATE THE AUDIT TRAIL (Pseudo-Report)
         Report auditLog = new Report();
@@ -257,8 +293,10 @@ public class AdminService {
             case "DELETE_PROPERTY":
                 if (report.getType() == Report.ReportType.PROPERTY && property != null) {
                     report.setStatus(Report.ReportStatus.RESOLVED_DELETED);
+                    Property.Status previousStatus = property.getStatus();
                     property.setStatus(Property.Status.SUSPENDED);
                     propertyRepository.save(property);
+                    eventPublisher.publishEvent(PropertyChangedEvent.statusChanged(property, previousStatus));
 
                     notificationService.createSystemAlertNotification(
                             property.getOwner(),
@@ -1,23 +1,40 @@
 package com.joestate.backend.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.joestate.backend.chat.ChatIngestPipeline;
+import com.joestate.backend.chat.ChatSession;
+import com.joestate.backend.chat.ChatSessionRegistry;
+import com.joestate.backend.dto.ChatInboxRow;
+import com.joestate.backend.dto.ChatParticipants;
 import com.joestate.backend.dto.ChatThreadDTO;
 import com.joestate.backend.dto.MessageDTO;
 import com.joestate.backend.entities.ChatThread;
 import com.joestate.backend.entities.Message;
 import com.joestate.backend.entities.Property;
 import com.joestate.backend.entities.User;
+import com.joestate.backend.events.PropertyChangedEvent;
 import com.joestate.backend.repositories.ChatThreadRepository;
 import com.joestate.backend.repositories.MessageRepository;
 import com.joestate.backend.repositories.PropertyRepository;
 import com.joestate.backend.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChatService {
@@ -26,6 +43,17 @@ public class ChatService {
     private final MessageRepository messageRepository;
     private final PropertyRepository propertyRepository;
     private final UserRepository userRepository;
+    private final ChatIngestPipeline ingestPipeline;
+    private final ChatSessionRegistry sessionRegistry;
+
+    // Keeps every message well under the TEXT column limit, so one message can't fail a whole batch
+    private static final int MAX_MESSAGE_LENGTH = 10000;
+
+    // Thread participants never change, so every STOMP session joining a thread shares one lookup
+    private final Cache<Long, ChatParticipants> participantsByThread = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
 
     // 1. Get or Create a Thread (When a user clicks "Chat with Owner")
     @Transactional
@@ -55,58 +83,92 @@ public class ChatService {
                     ChatThread newThread = ChatThread.builder()
                             .property(property)
                             .inquirer(inquirer)
+                            .ownerId(property.getOwner().getUserId())
                             .build();
                     return threadRepository.save(newThread).getThreadId();
                 });
     }
 
-    // 2. Fetch the Inbox for the UI
+    // Fills the inbox summary columns of threads from before they existed (no-op once done)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInboxSummaries() {
+        int updated = threadRepository.backfillInboxSummaries();
+        if (updated > 0) log.info("Backfilled inbox summaries for {} chat threads", updated);
+    }
+
+    // Deleting a listing deletes its threads: stop accepting live messages for them
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.getType() == PropertyChangedEvent.ChangeType.DELETED) {
+            participantsByThread.asMap().values().removeIf(p -> p.getPropertyId().equals(event.getPropertyId()));
+            sessionRegistry.forgetThreadsOf(event.getPropertyId());
+        }
+    }
+
+    // 2. Fetch the Inbox for the UI (one query over the thread rows, no messages loaded)
     public List<ChatThreadDTO> getUserInbox(String email) {
-        return threadRepository.findAllUserThreads(email).stream()
-                .map(thread -> mapToThreadDTO(thread, email))
+        Long myId = userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return threadRepository.findInboxRows(myId).stream()
+                .map(row -> mapToThreadDTO(row, myId))
                 .collect(Collectors.toList());
     }
 
-    // 3. Fetch Chat History (and mark them as read!)
+    // 3. Fetch Chat History, one page at a time (and mark them as read!)
+    // Returns up to `size` messages older than `before` (null = the latest), oldest to newest for display.
     @Transactional
-    public List<MessageDTO> getChatHistory(Long threadId, String myEmail) {
-        List<Message> messages = messageRepository.findByThread_ThreadIdOrderByTimestampAsc(threadId);
-
-        // Mark messages sent by the OTHER person as read
-        messages.stream()
-                .filter(m -> !m.getSender().getEmail().equals(myEmail) && !m.isRead())
-                .forEach(m -> m.setRead(true));
+    public List<MessageDTO> getChatHistory(Long threadId, String myEmail, Long before, int size) {
+        Long myId = userRepository.findIdByEmail(myEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!threadRepository.isParticipant(threadId, myId)) {
+            throw new RuntimeException("Unauthorized to view this thread");
+        }
 
-        messageRepository.saveAll(messages);
+        // Opening the chat (latest page): mark what the OTHER person sent as read, as one bulk update
+        if (before == null) {
+            messageRepository.markReadByReader(threadId, myId);
+            threadRepository.clearUnread(threadId, myId);
+        }
 
-        return messages.stream().map(this::mapToMessageDTO).collect(Collectors.toList());
+        List<Message> page = new ArrayList<>(messageRepository.findHistoryPage(threadId, before, PageRequest.of(0, size)));
+        Collections.reverse(page);
+        return page.stream().map(this::mapToMessageDTO).collect(Collectors.toList());
     }
 
-    // 4. Save a Live Message to the Database
-    @Transactional
-    public MessageDTO saveMessage(Long threadId, String senderEmail, String content) {
-        ChatThread thread = threadRepository.findById(threadId).orElseThrow();
-        User sender = userRepository.findByEmail(senderEmail).orElseThrow();
-
-        // Security check: Only the inquirer or the owner can send messages here!
-        if (!thread.getInquirer().getEmail().equals(senderEmail) &&
-                !thread.getProperty().getOwner().getEmail().equals(senderEmail)) {
-            throw new RuntimeException("Unauthorized to send message in this thread");
-        }
+    // 4. Live chat: the thread as seen by a connected user. Only the first call per session and thread
+    // can reach the database; after that it's a lookup in the session (see ChatSession).
+    public ChatParticipants getThreadFor(Long threadId, ChatSession session) {
+        ChatParticipants thread = session.getThread(threadId);
+        if (thread != null) return thread;
 
-        Message message = Message.builder()
-                .thread(thread)
-                .sender(sender)
-                .content(content)
-                .build();
+        thread = participantsByThread.get(threadId, id -> threadRepository.findParticipants(id).orElse(null));
+        if (thread == null) throw new RuntimeException("Chat thread not found");
 
-        Message savedMessage = messageRepository.save(message);
+        // Security check: Only the inquirer or the owner can use this thread!
+        if (!thread.includes(session.getUserId())) {
+            throw new RuntimeException("Unauthorized to access this thread");
+        }
+        session.rememberThread(thread);
+        return thread;
+    }
 
-        // Update the thread so it jumps to the top of the inbox
-        thread.setLastUpdatedAt(LocalDateTime.now());
-        threadRepository.save(thread);
+    // 5. Live message from a connected user (all checks in memory), queued on the thread's lane, which
+    // assigns the ID, calls onSaved and persists it in batches (onSaved runs before or after the commit, see ChatDurability).
+    // onFailed gets the message ID if it could not be saved after all.
+    public void sendMessage(ChatParticipants thread, ChatSession sender, String content, Consumer<MessageDTO> onSaved,
+                            Consumer<Long> onFailed) {
+        if (content == null || content.isBlank()) {
+            throw new RuntimeException("Message cannot be empty");
+        }
+        if (content.length() > MAX_MESSAGE_LENGTH) {
+            throw new RuntimeException("Message is too long (max " + MAX_MESSAGE_LENGTH + " characters)");
+        }
+        if (!sender.canSendMessages()) {
+            throw new RuntimeException("Your account has been restricted from messaging other users.");
+        }
 
-        return mapToMessageDTO(savedMessage);
+        ingestPipeline.submit(thread.getThreadId(), sender.getUserId(), sender.getDisplayName(), content,
+                thread.isInquirer(sender.getUserId()), onSaved, onFailed);
     }
 
     // --- Private Helper Mappers ---
@@ -120,32 +182,26 @@ public class ChatService {
                 .build();
     }
 
-    private ChatThreadDTO mapToThreadDTO(ChatThread thread, String myEmail) {
-        boolean amITheInquirer = thread.getInquirer().getEmail().equals(myEmail);
-        User otherUser = amITheInquirer ? thread.getProperty().getOwner() : thread.getInquirer();
-
-        // Get the last message preview
-        String lastMessageText = "No messages yet";
-        if (thread.getMessages() != null && !thread.getMessages().isEmpty()) {
-            lastMessageText = thread.getMessages().get(thread.getMessages().size() - 1).getContent();
-        }
-
-        long unreadCount = messageRepository.countByThread_ThreadIdAndSender_EmailNotAndIsReadFalse(thread.getThreadId(), myEmail);
+    private ChatThreadDTO mapToThreadDTO(ChatInboxRow row, Long myId) {
+        boolean amITheInquirer = row.getInquirerId().equals(myId);
 
         return ChatThreadDTO.builder()
-                .threadId(thread.getThreadId())
-                .propertyId(thread.getProperty().getPropertyId())
-                .propertyTitle(thread.getProperty().getTitle())
-                .propertyStatus(thread.getProperty().getStatus())
-                .propertyPrice(thread.getProperty().getPrice())
-                .propertyImageUrl(thread.getProperty().getImages().isEmpty() ? null : thread.getProperty().getImages().get(0).getImageUrl())
-                .otherUserId(otherUser.getUserId())
-                .otherUserEmail(otherUser.getEmail())
-                .otherUserName(otherUser.getFirstName() + " " + otherUser.getLastName())
-                .otherUserAvatarUrl(otherUser.getProfilePictureUrl())
-                .lastMessage(lastMessageText)
-                .lastUpdatedAt(thread.getLastUpdatedAt())
-                .unreadCount(unreadCount)
+                .threadId(row.getThreadId())
+                .propertyId(row.getPropertyId())
+                .propertyTitle(row.getPropertyTitle())
+                .propertyStatus(row.getPropertyStatus())
+                .propertyPrice(row.getPropertyPrice())
+                .propertyImageUrl(row.getPropertyImageUrl())
+                .otherUserId(amITheInquirer ? row.getOwnerId() : row.getInquirerId())
+                .otherUserEmail(amITheInquirer ? row.getOwnerEmail() : row.getInquirerEmail())
+                .otherUserName(amITheInquirer
+                        ? row.getOwnerFirstName() + " " + row.getOwnerLastName()
+                        : row.getInquirerFirstName() + " " + row.getInquirerLastName())
+                .otherUserAvatarUrl(amITheInquirer ? row.getOwnerAvatarUrl() : row.getInquirerAvatarUrl())
+                .lastMessage(row.getLastMessagePreview() != null ? row.getLastMessagePreview() : "No messages yet")
+                .lastUpdatedAt(row.getLastUpdatedAt())
+                .unreadCount(amITheInquirer ? row.getInquirerUnreadCount() : row.getOwnerUnreadCount())
                 .build();
     }
+
 }
\ No newline at end of file
@@ -7,11 +7,15 @@ import com.joestate.backend.entities.User;
 import com.joestate.backend.repositories.NotificationRepository;
 import com.joestate.backend.repositories.PropertyRepository;
 import com.joestate.backend.repositories.UserRepository;
+import com.joestate.backend.search.SavedSearchPercolator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -96,6 +100,27 @@ public class NotificationService {
         messagingTemplate.convertAndSend("/topic/user/" + receiver.getEmail(), "{\"type\":\"NEW_NOTIFICATION\"}");
     }
 
+    // 7. Tell buyers a new listing matches one of their saved searches
+    // REQUIRES_NEW: this runs from an after-commit listener, where the caller's transaction is already finished
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createSavedSearchMatchNotifications(Property property, Collection<SavedSearchPercolator.Match> matches) {
+        List<Notification> notifications = new ArrayList<>(matches.size());
+        for (SavedSearchPercolator.Match match : matches) {
+            notifications.add(Notification.builder()
+                    .receiver(userRepository.getReferenceById(match.getUserId())) // no SELECT, we only need the FK
+                    .sender(null)
+                    .type(Notification.NotificationType.SAVED_SEARCH_MATCH)
+                    .content("New listing for your saved search '" + match.getSearchName() + "': " + property.getTitle())
+                    .relatedId(property.getPropertyId())
+                    .build());
+        }
+        notificationRepository.saveAll(notifications);
+
+        for (SavedSearchPercolator.Match match : matches) {
+            messagingTemplate.convertAndSend("/topic/user/" + match.getEmail(), "{\"type\":\"NEW_NOTIFICATION\"}");
+        }
+    }
+
     private NotificationDTO mapToDTO(Notification n) {
         return NotificationDTO.builder()
                 .notificationId(n.getNotificationId())
@@ -1,23 +1,49 @@
 package com.joestate.backend.services;
 
+import com.joestate.backend.cache.FavoriteIds;
+import com.joestate.backend.cache.FavoriteIdsCache;
+import com.joestate.backend.dto.PropertyCardRow;
 import com.joestate.backend.dto.PropertyDTO;
+import com.joestate.backend.dto.PropertyFacetsDTO;
+import com.joestate.backend.dto.PropertyPageDTO;
+import com.joestate.backend.dto.PropertySearchCriteria;
+import com.joestate.backend.dto.PropertyView;
 import com.joestate.backend.entities.Property;
 import com.joestate.backend.entities.User;
 import com.joestate.backend.entities.PropertyImage;
 import com.joestate.backend.entities.Favorite;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.events.UserProfileChangedEvent;
+import com.joestate.backend.media.ImageRenditionService;
+import com.joestate.backend.media.MediaStore;
+import com.joestate.backend.media.MediaUploader;
 import com.joestate.backend.repositories.PropertyRepository;
 import com.joestate.backend.repositories.UserRepository;
 import com.joestate.backend.repositories.PropertyImageRepository;
 import com.joestate.backend.repositories.FavoriteRepository;
+import com.joestate.backend.search.LocationSuggestionIndex;
+import com.joestate.backend.search.PropertySearchIndex;
+import com.joestate.backend.search.SearchCursor;
+import com.joestate.backend.search.SearchPage;
+import com.joestate.backend.search.SearchResultCache;
+import com.joestate.backend.search.SearchSort;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.*;
 import java.util.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,52 +56,169 @@ public class PropertyService {
     private final FavoriteRepository favoriteRepository;
 
     private final NotificationService notificationService;
+    private final FavoriteIdsCache favoriteIdsCache;
+    private final PropertySearchIndex searchIndex;
+    private final LocationSuggestionIndex locationIndex;
+    private final SearchResultCache searchCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageRenditionService renditionService;
+    private final MediaStore mediaStore;
+    private final MediaUploader mediaUploader;
 
-    private final String UPLOAD_DIR = "uploads/";
+
+    @Value("${joestate.featured.size:3}")
+    private int featuredSize;
+
+    @Value("${joestate.featured.showcase-size:12}")
+    private int showcaseSize;
+
+    // Newest ACTIVE listings as ready-to-serve DTOs (isFavorite = false). Never mutated, only swapped
+    // whole on writes, so the homepage reads it without locks or DB work.
+    private final AtomicReference<List<PropertyDTO>> featuredSnapshot = new AtomicReference<>(List.of());
+
+    // Bumped AFTER each swap, so an ETag read before the body never describes a newer list than the body
+    private final AtomicLong featuredVersion = new AtomicLong();
 
     // ==========================================
     // 1. PUBLIC READ METHODS (With Fav Logic)
     // ==========================================
 
-    public List<PropertyDTO> searchProperties(
-            String location, Property.Purpose purpose, Property.PropertyType type,
-            Property.RentFrequency rentFrequency, Double minPrice, Double maxPrice,
-            Integer minArea, Integer maxArea, Integer beds, Integer baths
-    ) {
-        Set<Long> likedIds = getLikedPropertyIds(); // Fetch once for efficiency
-        List<Property> properties = propertyRepository.searchProperties(
-                location, purpose, type, rentFrequency, minPrice, maxPrice, minArea, maxArea, beds, baths
-        );
-        return properties.stream().map(p -> mapToDTO(p, likedIds)).collect(Collectors.toList());
+    public List<PropertyDTO> searchProperties(PropertySearchCriteria criteria, PropertyView view) {
+        FavoriteIds likedIds = getLikedPropertyIds(); // Fetch once for efficiency
+
+        // Until the in-memory index has finished its startup load, fall back to the JPQL scan
+        if (!searchIndex.isReady()) {
+            if (criteria.hasTextQuery() || criteria.hasGeoFilter()) {
+                throw new RuntimeException("Search is starting up, please try again in a moment.");
+            }
+            if (view == PropertyView.CARD) {
+                return mapCards(propertyRepository.searchCardRows(
+                        criteria.getLocation(), criteria.getPurpose(), criteria.getType(), criteria.getRentFrequency(),
+                        criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getMinArea(), criteria.getMaxArea(),
+                        criteria.getBeds(), criteria.getBaths()
+                ), likedIds);
+            }
+            List<Property> properties = propertyRepository.searchProperties(
+                    criteria.getLocation(), criteria.getPurpose(), criteria.getType(), criteria.getRentFrequency(),
+                    criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getMinArea(), criteria.getMaxArea(),
+                    criteria.getBeds(), criteria.getBaths()
+            );
+            return properties.stream().map(p -> mapToDTO(p, likedIds)).collect(Collectors.toList());
+        }
+
+        // Filter in memory, then only hit the DB for the rows we return
+        List<Long> ids = searchCache.search(criteria);
+        return loadDTOs(ids, view, likedIds);
+    }
+
+    // Paginated search: keyset cursor on (sortKey, propertyId), no OFFSET
+    public PropertyPageDTO searchPropertiesPage(PropertySearchCriteria criteria, SearchSort sort, String cursor, int size, PropertyView view) {
+        if (!searchIndex.isReady()) {
+            throw new RuntimeException("Search is starting up, please try again in a moment.");
+        }
+        if (sort == null) {
+            sort = criteria.hasGeoFilter() ? SearchSort.DISTANCE
+                    : criteria.hasTextQuery() ? SearchSort.RELEVANCE
+                    : SearchSort.NEWEST;
+        }
+
+        SearchCursor after = (cursor == null || cursor.isBlank()) ? null : SearchCursor.decode(cursor, sort);
+        SearchPage page = searchCache.page(criteria, sort, after, size);
+
+        List<PropertyDTO> items = loadDTOs(page.getIds(), view, getLikedPropertyIds());
+
+        return PropertyPageDTO.builder()
+                .items(items)
+                .nextCursor(page.getNextCursor() != null ? page.getNextCursor().encode() : null)
+                .build();
+    }
+
+    // Sidebar counts for the same filter set as the search (pure in-memory, no DB work)
+    public PropertyFacetsDTO getSearchFacets(PropertySearchCriteria criteria, int buckets) {
+        if (!searchIndex.isReady()) {
+            throw new RuntimeException("Search is starting up, please try again in a moment.");
+        }
+        return searchIndex.facets(criteria, buckets);
+    }
+
+    public List<PropertyDTO> getFeaturedProperties(boolean showcase) {
+        List<PropertyDTO> snapshot = featuredSnapshot.get();
+        int size = Math.min(showcase ? showcaseSize : featuredSize, snapshot.size());
+        List<PropertyDTO> featured = snapshot.subList(0, size);
+
+        // Only the favorite flags are per user: copy just the cards this user has liked
+        FavoriteIds likedIds = getLikedPropertyIds();
+        if (likedIds.size() == 0) return featured;
+        return featured.stream()
+                .map(dto -> likedIds.contains(dto.getPropertyId()) ? dto.toBuilder().isFavorite(true).build() : dto)
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildFeaturedSnapshot() {
+        int limit = Math.max(featuredSize, showcaseSize);
+        List<Long> ids = propertyRepository.findNewestIdsByStatus(Property.Status.ACTIVE, PageRequest.of(0, limit));
+        List<PropertyDTO> dtos = loadInOrder(ids).stream()
+                .map(p -> mapToDTO(p, FavoriteIds.EMPTY))
+                .collect(Collectors.toList());
+        featuredSnapshot.set(Collections.unmodifiableList(dtos));
+        featuredVersion.incrementAndGet();
+    }
+
+    // New listings and status changes can reshuffle the set; edits/deletes only matter if the listing is in it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        boolean affectsFeatured = event.getType() == PropertyChangedEvent.ChangeType.CREATED
+                || event.getType() == PropertyChangedEvent.ChangeType.STATUS_CHANGED
+                || featuredSnapshot.get().stream().anyMatch(dto -> dto.getPropertyId().equals(event.getPropertyId()));
+        if (affectsFeatured) rebuildFeaturedSnapshot();
     }
 
-    public List<PropertyDTO> getFeaturedProperties() {
-        Set<Long> likedIds = getLikedPropertyIds();
-        List<Property> props = propertyRepository.findTop3ByStatusOrderByDatePostedDesc(Property.Status.ACTIVE);
-        return props.stream().map(p -> mapToDTO(p, likedIds)).collect(Collectors.toList());
+    // The snapshot carries each owner's name/phone/avatar: rebuild it (and bump the ETag) if this owner is in it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        boolean inFeatured = featuredSnapshot.get().stream().anyMatch(dto -> event.getUserId().equals(dto.getOwnerId()));
+        if (inFeatured) rebuildFeaturedSnapshot();
     }
 
     public PropertyDTO getPropertyById(Long id) {
-        Set<Long> likedIds = getLikedPropertyIds();
-        Property property = propertyRepository.findById(id)
+        FavoriteIds likedIds = getLikedPropertyIds();
+        Property property = propertyRepository.findCardById(id)
                 .orElseThrow(() -> new RuntimeException("Property not found"));
         return mapToDTO(property, likedIds);
     }
 
-    public List<PropertyDTO> getPublicUserProperties(Long userId) {
+    // "Similar properties" strip on the detail page, served from the in-memory index
+    public List<PropertyDTO> getSimilarProperties(Long id, int k, PropertyView view) {
+        if (!searchIndex.isReady()) {
+            throw new RuntimeException("Search is starting up, please try again in a moment.");
+        }
+        Property source = propertyRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Property not found"));
+
+        return loadDTOs(searchIndex.similar(source, k), view, getLikedPropertyIds());
+    }
+
+    public List<PropertyDTO> getPublicUserProperties(Long userId, PropertyView view) {
         // We don't check for 'liked' status here (or we can pass empty set)
         // because public profiles are usually viewed by others.
         // For simplicity, we just return the basic DTOs.
+        if (view == PropertyView.CARD) {
+            return mapCards(propertyRepository.findPublicCardRowsByOwnerId(userId), FavoriteIds.EMPTY);
+        }
         return propertyRepository.findAllByOwner_UserId(userId)
                 .stream()
                 .filter(p -> p.getStatus() != Property.Status.SUSPENDED)
-                .map(p -> mapToDTO(p, Collections.emptySet()))
+                .map(p -> mapToDTO(p, FavoriteIds.EMPTY))
                 .collect(Collectors.toList());
     }
 
     // My Listings
-    public List<PropertyDTO> getPropertiesByUser(String email) {
-        Set<Long> likedIds = getLikedPropertyIds();
+    public List<PropertyDTO> getPropertiesByUser(String email, PropertyView view) {
+        FavoriteIds likedIds = getLikedPropertyIds();
+        if (view == PropertyView.CARD) {
+            return mapCards(propertyRepository.findCardRowsByOwnerEmail(email), likedIds);
+        }
         return propertyRepository.findAllByOwner_Email(email)
                 .stream()
                 .map(p -> mapToDTO(p, likedIds))
@@ -83,21 +226,55 @@ public class PropertyService {
     }
 
     // My Favorites
-    public List<PropertyDTO> getFavoritesByUser(String email) {
-        Set<Long> likedIds = getLikedPropertyIds();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        return user.getFavorites().stream()
-                .map(fav -> mapToDTO(fav.getProperty(), likedIds))
-                .collect(Collectors.toList());
+    public List<PropertyDTO> getFavoritesByUser(String email, PropertyView view) {
+        List<Long> ids = favoriteRepository.findPropertyIdsByUserEmailNewestFirst(email);
+        return loadDTOs(ids, view, getLikedPropertyIds());
     }
 
     public List<String> getLocationSuggestions(String query) {
+        if (locationIndex.isReady()) {
+            return locationIndex.suggest(query, 5);
+        }
         List<String> locations = propertyRepository.findDistinctLocations(query);
         return locations.size() > 5 ? locations.subList(0, 5) : locations;
     }
 
+    // ==========================================
+    // 1.5 ETAGS (Conditional GET): cheap stamp queries, no entities or DTOs
+    // ==========================================
+
+    // Listing row + owner row (name/phone/avatar are on the card) + this user's favorite flag
+    public String getPropertyETag(Long id) {
+        List<Object[]> rows = propertyRepository.findVersionStamps(id);
+        if (rows.isEmpty()) throw new RuntimeException("Property not found");
+        Object[] row = rows.get(0);
+        return "p" + id + "-" + stamp(row[0]) + "-" + stamp(row[1]) + (getLikedPropertyIds().contains(id) ? "-f" : "");
+    }
+
+    // Public profile listings are served without favorite flags, so this one is the same for every viewer
+    public String getUserPropertiesETag(Long userId, PropertyView view) {
+        List<Object[]> rows = propertyRepository.findOwnerListingStamps(userId);
+        Object[] row = rows.isEmpty() ? new Object[4] : rows.get(0);
+        long count = row[0] != null ? ((Number) row[0]).longValue() : 0;
+        long idSum = row[2] != null ? ((Number) row[2]).longValue() : 0;
+        return "u" + userId + "-" + view.name().charAt(0) + "-" + count + "-" + stamp(row[1]) + "-" + idSum + "-" + stamp(row[3]);
+    }
+
+    public String getFeaturedETag(boolean showcase) {
+        StringBuilder etag = new StringBuilder("f").append(featuredVersion.get()).append(showcase ? "-s" : "");
+        FavoriteIds likedIds = getLikedPropertyIds();
+        if (likedIds.size() > 0) {
+            for (PropertyDTO dto : featuredSnapshot.get()) {
+                if (likedIds.contains(dto.getPropertyId())) etag.append('-').append(dto.getPropertyId());
+            }
+        }
+        return etag.toString();
+    }
+
+    private static long stamp(Object value) {
+        return value instanceof LocalDateTime ? ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+    }
+
     // ==========================================
     // 2. WRITE METHODS (Create, Like)
     // ==========================================
@@ -108,6 +285,7 @@ public class PropertyService {
         if (existingFav.isPresent()) {
             // --- SCENARIO 1: THEY UN-FAVORITED THE PROPERTY ---
             favoriteRepository.delete(existingFav.get());
+            favoriteIdsCache.removed(email, propertyId);
 
             // Delete the notification so it disappears from the owner's bell!
             notificationService.deleteFavoriteNotification(propertyId, email);
@@ -125,6 +303,7 @@ public class PropertyService {
             favorite.setUser(user);
             favorite.setProperty(property);
             favoriteRepository.save(favorite);
+            favoriteIdsCache.added(email, propertyId);
 
             // Fire the notification to the owner!
             notificationService.createFavoriteNotification(propertyId, email);
@@ -150,6 +329,8 @@ public class PropertyService {
         property.setPrice(dto.getPrice());
         property.setArea(dto.getArea());
         property.setLocation(dto.getLocation());
+        property.setLatitude(dto.getLatitude());
+        property.setLongitude(dto.getLongitude());
         property.setRoomCount(dto.getRoomCount());
         property.setBathCount(dto.getBathCount());
         property.setType(dto.getType());
@@ -170,7 +351,12 @@ public class PropertyService {
         }
 
         Property savedProperty = propertyRepository.save(property);
-        saveImages(dto.getImageFiles(), savedProperty);
+        List<Long> newImageIds = saveImages(dto.getImageFiles(), savedProperty);
+
+        eventPublisher.publishEvent(PropertyChangedEvent.created(savedProperty));
+
+        // Originals are on disk; thumbnails etc. are generated in the background
+        renditionService.submit(savedProperty.getPropertyId(), newImageIds);
     }
 
     // ==========================================
@@ -188,11 +374,15 @@ public class PropertyService {
         }
 
         // 3. Update Text Fields
+        // (stamped by hand: an edit that only adds/removes images doesn't dirty the row, so @PreUpdate wouldn't fire)
+        property.setLastModifiedAt(LocalDateTime.now());
         property.setTitle(dto.getTitle());
         property.setDescription(dto.getDescription());
         property.setPrice(dto.getPrice());
         property.setArea(dto.getArea());
         property.setLocation(dto.getLocation());
+        property.setLatitude(dto.getLatitude());
+        property.setLongitude(dto.getLongitude());
         property.setRoomCount(dto.getRoomCount());
         property.setBathCount(dto.getBathCount());
         property.setType(dto.getType());
@@ -227,11 +417,11 @@ public class PropertyService {
         property.getImages().removeAll(toDelete);
 
         // 3. Add any NEW images uploaded
-        if (dto.getImageFiles() != null && !dto.getImageFiles().isEmpty()) {
-            saveImages(dto.getImageFiles(), property);
-        }
+        List<Long> newImageIds = saveImages(dto.getImageFiles(), property);
 
-        propertyRepository.save(property);
+        Property savedProperty = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(savedProperty));
+        renditionService.submit(savedProperty.getPropertyId(), newImageIds);
     }
 
     public void deleteProperty(Long id, String userEmail) {
@@ -249,6 +439,7 @@ public class PropertyService {
 
         // 4. Delete the property (CascadeType.ALL will automatically delete DB rows for Images & Favorites)
         propertyRepository.delete(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(id));
     }
         // 5. Change property status
     public void updatePropertyStatus(Long id, Property.Status newStatus, String userEmail) {
@@ -259,21 +450,17 @@ public class PropertyService {
             throw new RuntimeException("You do not have permission to change this status");
         }
 
+        Property.Status previousStatus = property.getStatus();
         property.setStatus(newStatus);
-        propertyRepository.save(property);
+        Property savedProperty = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.statusChanged(savedProperty, previousStatus));
     }
 
-    // Helper: Deletes files from the disk to save space
+    // Helper: Drops this listing's references; a file (and its renditions) is deleted once nothing else uses it
     private void deletePhysicalImages(List<PropertyImage> images) {
         if (images == null) return;
-        Path uploadPath = Paths.get(UPLOAD_DIR);
         for (PropertyImage img : images) {
-            try {
-                Path filePath = uploadPath.resolve(img.getImageUrl());
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                System.out.println("Could not delete file: " + img.getImageUrl());
-            }
+            mediaStore.release(img.getImageUrl(), ImageRenditionService.renditionFiles(img));
         }
     }
 
@@ -282,23 +469,83 @@ public class PropertyService {
     // ==========================================
 
     // Helper: Find IDs of properties liked by the currently logged-in user
-    private Set<Long> getLikedPropertyIds() {
+    private FavoriteIds getLikedPropertyIds() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getPrincipal())) {
-            return Collections.emptySet();
+            return FavoriteIds.EMPTY;
+        }
+
+        // Served from memory after the first call; no User / Favorite entities are loaded
+        return favoriteIdsCache.get(auth.getName());
+    }
+
+    // Helper: Load properties (with owner + images) by ID in one query, keeping the order of the given ID list
+    private List<Property> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return Collections.emptyList();
+        Map<Long, Property> byId = propertyRepository.findCardsByIds(ids).stream()
+                .collect(Collectors.toMap(Property::getPropertyId, p -> p));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    // Helper: IDs -> DTOs in the same order, either full entities or the slim card projection
+    private List<PropertyDTO> loadDTOs(List<Long> ids, PropertyView view, FavoriteIds likedIds) {
+        if (view == PropertyView.CARD) {
+            if (ids.isEmpty()) return Collections.emptyList();
+            Map<Long, PropertyCardRow> byId = propertyRepository.findCardRowsByIds(ids).stream()
+                    .collect(Collectors.toMap(PropertyCardRow::getPropertyId, r -> r));
+            List<PropertyCardRow> rows = ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+            return mapCards(rows, likedIds);
         }
+        return loadInOrder(ids).stream().map(p -> mapToDTO(p, likedIds)).collect(Collectors.toList());
+    }
 
-        String email = auth.getName();
-        // We use a SET for O(1) lookup performance
-        return userRepository.findByEmail(email)
-                .map(user -> user.getFavorites().stream()
-                        .map(fav -> fav.getProperty().getPropertyId())
-                        .collect(Collectors.toSet()))
-                .orElse(Collections.emptySet());
+    // Helper: Card rows -> DTOs, plus one query for the main image of all of them.
+    // Cards get the 640px rendition and its thumbnail; unprocessed images fall back to the original.
+    private List<PropertyDTO> mapCards(List<PropertyCardRow> rows, FavoriteIds likedIds) {
+        if (rows.isEmpty()) return Collections.emptyList();
+
+        Map<Long, String> mainImages = new HashMap<>();
+        Map<Long, String> mainThumbs = new HashMap<>();
+        List<Long> ids = rows.stream().map(PropertyCardRow::getPropertyId).collect(Collectors.toList());
+        for (Object[] row : propertyImageRepository.findCardImageUrls(ids)) {
+            Long id = (Long) row[0];
+            if (mainImages.containsKey(id)) continue;
+            String original = (String) row[1];
+            mainImages.put(id, row[2] != null ? (String) row[2] : original);
+            mainThumbs.put(id, row[3] != null ? (String) row[3] : original);
+        }
+
+        return rows.stream().map(r -> PropertyDTO.builder()
+                        .propertyId(r.getPropertyId())
+                        .ownerId(r.getOwnerId())
+                        .ownerName(r.getOwnerFirstName() + " " + r.getOwnerLastName())
+                        .ownerProfilePictureUrl(r.getOwnerProfilePictureUrl())
+                        .title(r.getTitle())
+                        .price(r.getPrice())
+                        .area(r.getArea())
+                        .location(r.getLocation())
+                        .latitude(r.getLatitude())
+                        .longitude(r.getLongitude())
+                        .roomCount(r.getRoomCount())
+                        .bathCount(r.getBathCount())
+                        .type(r.getType())
+                        .purpose(r.getPurpose())
+                        .status(r.getStatus())
+                        .rentFrequency(r.getRentFrequency())
+                        .datePosted(r.getDatePosted())
+                        .imageUrls(mainImages.containsKey(r.getPropertyId())
+                                ? List.of(mainImages.get(r.getPropertyId())) : Collections.emptyList())
+                        .thumbnailUrls(mainThumbs.containsKey(r.getPropertyId())
+                                ? List.of(mainThumbs.get(r.getPropertyId())) : Collections.emptyList())
+                        .cardUrls(mainImages.containsKey(r.getPropertyId())
+                                ? List.of(mainImages.get(r.getPropertyId())) : Collections.emptyList())
+                        .isFavorite(likedIds.contains(r.getPropertyId()))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     // Helper: Map Entity to DTO (Injects isFavorite status)
-    private PropertyDTO mapToDTO(Property p, Set<Long> likedIds) {
+    private PropertyDTO mapToDTO(Property p, FavoriteIds likedIds) {
         boolean isLiked = likedIds.contains(p.getPropertyId());
 
         return PropertyDTO.builder()
@@ -312,6 +559,8 @@ public class PropertyService {
                 .price(p.getPrice())
                 .area(p.getArea())
                 .location(p.getLocation())
+                .latitude(p.getLatitude())
+                .longitude(p.getLongitude())
                 .roomCount(p.getRoomCount())
                 .bathCount(p.getBathCount())
                 .type(p.getType())
@@ -319,35 +568,42 @@ public class PropertyService {
                 .status(p.getStatus())
                 .rentFrequency(p.getRentFrequency())
                 .datePosted(p.getDatePosted())
+                // Originals are only for the edit form (it sends them back as existingImageUrls); pages show the renditions
                 .imageUrls(p.getImages().stream().map(PropertyImage::getImageUrl).collect(Collectors.toList()))
+                .thumbnailUrls(p.getImages().stream()
+                        .map(img -> img.getThumbUrl() != null ? img.getThumbUrl() : img.getImageUrl())
+                        .collect(Collectors.toList()))
+                .cardUrls(p.getImages().stream()
+                        .map(img -> img.getCardUrl() != null ? img.getCardUrl() : img.getImageUrl())
+                        .collect(Collectors.toList()))
+                .fullUrls(p.getImages().stream()
+                        .map(img -> img.getFullUrl() != null ? img.getFullUrl() : img.getImageUrl())
+                        .collect(Collectors.toList()))
                 .isFavorite(isLiked)
                 .build();
     }
 
-    // Helper: Save Images to Disk & DB
-    private void saveImages(List<MultipartFile> files, Property property) {
-        if (files == null || files.isEmpty()) return;
+    // Helper: Save Images to the media store & DB. Returns the new image IDs for the rendition pipeline.
+    private List<Long> saveImages(List<MultipartFile> files, Property property) {
+        // Streamed to disk in parallel, deduplicated by content; all or nothing
+        List<String> fileKeys = mediaUploader.storeAll(files);
+        if (fileKeys.isEmpty()) return Collections.emptyList();
+
+        List<PropertyImage> images = new ArrayList<>(fileKeys.size());
+        for (int i = 0; i < fileKeys.size(); i++) {
+            PropertyImage image = new PropertyImage();
+            image.setProperty(property);
+            image.setImageUrl(fileKeys.get(i));
+            image.setMain(i == 0);
+            images.add(image);
+        }
 
+        // One saveAll = one transaction and one commit for all the rows
         try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) Files.createDirectories(uploadPath);
-
-            boolean isMain = true;
-            for (MultipartFile file : files) {
-                if (file.isEmpty()) continue;
-
-                String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-                Files.copy(file.getInputStream(), uploadPath.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
-
-                PropertyImage image = new PropertyImage();
-                image.setProperty(property);
-                image.setImageUrl(fileName);
-                image.setMain(isMain);
-                propertyImageRepository.save(image);
-                isMain = false;
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload images", e);
+            return propertyImageRepository.saveAll(images).stream().map(PropertyImage::getImageId).collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            mediaUploader.releaseAll(fileKeys);
+            throw e;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package com.joestate.backend.services;
+
+import com.joestate.backend.dto.SavedSearchDTO;
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.entities.SavedSearch;
+import com.joestate.backend.entities.User;
+import com.joestate.backend.events.PropertyChangedEvent;
+import com.joestate.backend.repositories.SavedSearchRepository;
+import com.joestate.backend.repositories.UserRepository;
+import com.joestate.backend.search.SavedSearchPercolator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class SavedSearchService {
+
+    private static final int MAX_SAVED_SEARCHES = 20;
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final SavedSearchPercolator percolator;
+
+    // Matching + notifying runs here, so publishing a listing doesn't wait on one INSERT and push per buyer
+    private final ThreadPoolExecutor fanOut;
+
+    public SavedSearchService(
+            SavedSearchRepository savedSearchRepository,
+            UserRepository userRepository,
+            NotificationService notificationService,
+            SavedSearchPercolator percolator,
+            @Value("${joestate.saved-searches.queue-capacity:1000}") int queueCapacity
+    ) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.percolator = percolator;
+
+        // One worker keeps the notifications in publish order; when the queue is full the
+        // request thread does the work itself (slower, but no buyer misses a match)
+        this.fanOut = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "saved-search-fan-out");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // ==========================================
+    // 1. CRUD FOR THE BUYER
+    // ==========================================
+
+    public List<SavedSearchDTO> getSavedSearches(String email) {
+        return savedSearchRepository.findByUser_EmailOrderByCreatedAtDesc(email).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public SavedSearchDTO createSavedSearch(SavedSearchDTO dto, String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (savedSearchRepository.countByUser_Email(email) >= MAX_SAVED_SEARCHES) {
+            throw new RuntimeException("You can save up to " + MAX_SAVED_SEARCHES + " searches. Please delete one first.");
+        }
+
+        SavedSearch savedSearch = SavedSearch.builder()
+                .user(user)
+                .name(dto.getName().trim())
+                .location(dto.getLocation() != null && !dto.getLocation().isBlank() ? dto.getLocation().trim() : null)
+                .purpose(dto.getPurpose())
+                .type(dto.getType())
+                .rentFrequency(dto.getRentFrequency())
+                .minPrice(dto.getMinPrice())
+                .maxPrice(dto.getMaxPrice())
+                .minArea(dto.getMinArea())
+                .maxArea(dto.getMaxArea())
+                .beds(dto.getBeds())
+                .baths(dto.getBaths())
+                .build();
+
+        SavedSearch saved = savedSearchRepository.save(savedSearch);
+        percolator.add(saved);
+        return mapToDTO(saved);
+    }
+
+    public void deleteSavedSearch(Long id, String email) {
+        SavedSearch savedSearch = savedSearchRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Saved search not found"));
+
+        if (!savedSearch.getUser().getEmail().equals(email)) {
+            throw new RuntimeException("You do not have permission to delete this saved search");
+        }
+
+        savedSearchRepository.delete(savedSearch);
+        percolator.remove(id);
+    }
+
+    // ==========================================
+    // 2. PUSH NEW LISTINGS TO MATCHING SEARCHES
+    // ==========================================
+
+    // After commit of a new listing, or one coming back to ACTIVE. Handed to the fan-out worker, off the request thread.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!event.isNewlyActive()) return;
+
+        Property property = event.getProperty();
+        Long ownerId = property.getOwner() != null ? property.getOwner().getUserId() : null;
+        fanOut.execute(() -> notifyMatches(property, ownerId));
+    }
+
+    private void notifyMatches(Property property, Long ownerId) {
+        try {
+            // Don't tell the owner about their own listing
+            Collection<SavedSearchPercolator.Match> matches = new ArrayList<>(percolator.match(property));
+            matches.removeIf(m -> m.getUserId().equals(ownerId));
+            if (matches.isEmpty()) return;
+
+            notificationService.createSavedSearchMatchNotifications(property, matches);
+        } catch (RuntimeException e) {
+            log.error("Saved search notifications failed for property {}", property.getPropertyId(), e);
+        }
+    }
+
+    // Let queued notifications go out before the database goes away
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdown();
+        try {
+            fanOut.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SavedSearchDTO mapToDTO(SavedSearch s) {
+        return SavedSearchDTO.builder()
+                .savedSearchId(s.getSavedSearchId())
+                .name(s.getName())
+                .location(s.getLocation())
+                .purpose(s.getPurpose())
+                .type(s.getType())
+                .rentFrequency(s.getRentFrequency())
+                .minPrice(s.getMinPrice())
+                .maxPrice(s.getMaxPrice())
+                .minArea(s.getMinArea())
+                .maxArea(s.getMaxArea())
+                .beds(s.getBeds())
+                .baths(s.getBaths())
+                .createdAt(s.getCreatedAt())
+                .build();
+    }
+}
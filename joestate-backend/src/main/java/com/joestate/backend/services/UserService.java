@@ -4,18 +4,20 @@ import com.joestate.backend.dto.UserDTO;
 import com.joestate.backend.dto.PaymentRequest;
 import com.joestate.backend.entities.User;
 import com.joestate.backend.entities.Subscription;
+import com.joestate.backend.events.UserProfileChangedEvent;
+import com.joestate.backend.media.MediaStore;
+import com.joestate.backend.media.MediaUploader;
 import com.joestate.backend.repositories.UserRepository;
 import com.joestate.backend.repositories.SubscriptionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -25,9 +27,9 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final SubscriptionRepository subscriptionRepository;
-
-    // Directory where uploads are stored
-    private final String UPLOAD_DIR = "uploads/";
+    private final MediaStore mediaStore;
+    private final MediaUploader mediaUploader;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==========================================
     // READ OPERATIONS (Optimized for Speed)
@@ -47,6 +49,15 @@ public class UserService {
         return mapToDTO(user);
     }
 
+    // Conditional GET for the public profile: one column, no entity
+    @Transactional(readOnly = true)
+    public String getPublicProfileETag(Long userId) {
+        List<LocalDateTime> stamps = userRepository.findLastModifiedAt(userId);
+        if (stamps.isEmpty()) throw new RuntimeException("User not found");
+        LocalDateTime stamp = stamps.get(0);
+        return "user" + userId + "-" + (stamp != null ? stamp.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L);
+    }
+
     // ==========================================
     // WRITE OPERATIONS (Protected by Transactions)
     // ==========================================
@@ -60,6 +71,9 @@ public class UserService {
         user.setPhoneNumber(dto.getPhoneNumber());
         user.setBio(dto.getBio());
 
+        // Name and phone are also shown on the owner's listings (featured snapshot is refreshed after commit)
+        eventPublisher.publishEvent(new UserProfileChangedEvent(user.getUserId()));
+
         // We don't need to explicitly call repository.save(user) here!
         // Because of @Transactional, Spring detects the changes to the 'user' entity
         // and automatically pushes them to the database when the method finishes.
@@ -123,32 +137,18 @@ public class UserService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String newFileName = UUID.randomUUID().toString() + extension;
-        Path filePath = Paths.get(UPLOAD_DIR + newFileName);
-
-        try {
-            // 1. Write to the File System FIRST
-            Files.createDirectories(filePath.getParent());
-            Files.write(filePath, file.getBytes());
-
-            // 2. Update the Database SECOND
-            user.setProfilePictureUrl(newFileName);
-
-            // If anything fails after this point, Spring will roll back the database automatically.
-            return newFileName;
-
-        } catch (Exception e) {
-            // 3. THE SAFETY NET: If writing to the DB fails, we must manually delete the orphaned file!
-            try {
-                Files.deleteIfExists(filePath);
-            } catch (IOException ioException) {
-                System.err.println("CRITICAL: Failed to delete orphaned file: " + filePath);
-            }
-            // Re-throw to trigger the Database Rollback
-            throw new RuntimeException("Failed to upload profile picture: " + e.getMessage());
-        }
+        // 1. Stream into the media store (takes a reference; identical pictures share one file).
+        // The size limit is the container's, spring.servlet.multipart.max-file-size, checked before we get here.
+        String newFileKey = mediaUploader.storeOne(file);
+
+        // 2. Swap the avatar and drop our reference on the old one (also right if it's the same picture again).
+        // The old file is only deleted after commit, and only if no one else uses it.
+        String oldFileKey = user.getProfilePictureUrl();
+        user.setProfilePictureUrl(newFileKey);
+        if (oldFileKey != null) mediaStore.release(oldFileKey, null);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(user.getUserId()));
+
+        return newFileKey;
     }
 
     // ==========================================
@@ -0,0 +1,176 @@
+package com.joestate.backend.chat;
+
+import com.joestate.backend.entities.ChatThread;
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.entities.User;
+import com.joestate.backend.repositories.ChatThreadRepository;
+import com.joestate.backend.repositories.MessageRepository;
+import com.joestate.backend.repositories.PropertyRepository;
+import com.joestate.backend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of {@link ChatIngestPipeline} for 1, 2, 4 and 8 lanes, with many conversations sending at once,
+ * writing through the real {@link ChatMessageWriter} into an (H2) messages / chat_threads schema.
+ *
+ * It only reports the numbers. In-memory H2 has no log flush to wait on, so past the point where the
+ * lanes saturate the CPU (or H2's own locks) more lanes won't help; against MySQL, where each batch
+ * waits on its commit, the curve keeps climbing for longer. Point the datasource at a MySQL instance
+ * to see that. It does check that every conversation is acked in order and that no message is lost.
+ *
+ * Not part of the normal build (surefire only picks up *Test classes). Run it with:
+ *   mvn test -Dtest=ChatLanesBenchmark
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:chat-lanes;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "joestate.app.jwtSecret=Y2hhdC1sYW5lcy1iZW5jaG1hcmstc2VjcmV0LWNoYXQtbGFuZXMtYmVuY2htYXJr",
+        "joestate.app.jwtExpirationMs=3600000"
+})
+class ChatLanesBenchmark {
+
+    private static final int CONVERSATIONS = 256;
+    private static final int SENDERS = 16;
+    private static final int MESSAGES = 50_000;
+
+    @Autowired private ChatMessageWriter messageWriter;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private ChatThreadRepository threadRepository;
+    @Autowired private MessageRepository messageRepository;
+
+    @Test
+    void throughputByLaneCount() throws Exception {
+        Conversations conversations = seed();
+
+        System.out.printf("%-6s %12s %10s %12s%n", "lanes", "msgs/sec", "avgBatch", "persisted");
+        for (int lanes : new int[]{1, 2, 4, 8}) {
+            Result result = run(lanes, conversations);
+            System.out.printf("%-6d %12.0f %10s %12s%n", lanes, result.perSecond,
+                    result.stats.get("avgBatchSize"), result.stats.get("persisted"));
+        }
+    }
+
+    private Result run(int laneCount, Conversations conversations) throws Exception {
+        long rowsBefore = messageRepository.count();
+        ChatIngestPipeline pipeline = new ChatIngestPipeline(messageWriter, ChatDurability.SYNC,
+                laneCount, 10_000, 200, 60_000);
+
+        // Per conversation: the last acked ID, to check the order the lane acks them in
+        Map<Long, Long> lastAcked = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch allAcked = new CountDownLatch(MESSAGES);
+
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int s = 0; s < SENDERS; s++) {
+            int sender = s;
+            futures.add(senders.submit(() -> {
+                for (int i = sender; i < MESSAGES; i += SENDERS) {
+                    long threadId = conversations.threadIds.get(i % CONVERSATIONS);
+                    boolean fromInquirer = i % 2 == 0;
+                    Long senderId = fromInquirer ? conversations.inquirerId : conversations.ownerId;
+                    pipeline.submit(threadId, senderId, "Sender", "message " + i, fromInquirer, dto -> {
+                        Long before = lastAcked.put(threadId, dto.getMessageId());
+                        if (before != null && before >= dto.getMessageId()) outOfOrder.incrementAndGet();
+                        allAcked.countDown();
+                    }, messageId -> { });
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get();
+        assertTrue(allAcked.await(5, TimeUnit.MINUTES), "Not every message was acked");
+        long elapsed = System.nanoTime() - start;
+
+        senders.shutdown();
+        pipeline.shutdown();
+
+        Map<String, Object> stats = pipeline.getStats();
+        assertEquals(0, outOfOrder.get(), "Messages of a conversation were acked out of order");
+        assertEquals((long) MESSAGES, stats.get("persisted"));
+        assertEquals(rowsBefore + MESSAGES, messageRepository.count(), "Acked messages missing from the table");
+        return new Result(MESSAGES * 1e9 / elapsed, stats);
+    }
+
+    // One listing, one inquirer, CONVERSATIONS threads about it
+    private Conversations seed() {
+        User owner = userRepository.save(user("owner@lanes.jo"));
+        User inquirer = userRepository.save(user("inquirer@lanes.jo"));
+
+        Property p = new Property();
+        p.setOwner(owner);
+        p.setTitle("Apartment");
+        p.setDescription("Sunny apartment");
+        p.setPrice(300.0);
+        p.setArea(100.0);
+        p.setLocation("Amman");
+        p.setRoomCount(2);
+        p.setBathCount(1);
+        p.setType(Property.PropertyType.APARTMENT);
+        p.setPurpose(Property.Purpose.RENT);
+        p.setRentFrequency(Property.RentFrequency.MONTHLY);
+        p.setImages(new ArrayList<>());
+        Property property = propertyRepository.save(p);
+
+        List<Long> threadIds = new ArrayList<>(CONVERSATIONS);
+        for (int i = 0; i < CONVERSATIONS; i++) {
+            ChatThread thread = ChatThread.builder()
+                    .property(property)
+                    .inquirer(inquirer)
+                    .ownerId(owner.getUserId())
+                    .build();
+            threadIds.add(threadRepository.save(thread).getThreadId());
+        }
+        return new Conversations(owner.getUserId(), inquirer.getUserId(), threadIds);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("x");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        return user;
+    }
+
+    private static class Conversations {
+        final Long ownerId;
+        final Long inquirerId;
+        final List<Long> threadIds;
+
+        Conversations(Long ownerId, Long inquirerId, List<Long> threadIds) {
+            this.ownerId = ownerId;
+            this.inquirerId = inquirerId;
+            this.threadIds = threadIds;
+        }
+    }
+
+    private static class Result {
+        final double perSecond;
+        final Map<String, Object> stats;
+
+        Result(double perSecond, Map<String, Object> stats) {
+            this.perSecond = perSecond;
+            this.stats = stats;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.joestate.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Range header parsing of {@link MediaController}: {start, end} for a range we serve as 206,
+ * {} to ignore the header and send the whole file, null for 416.
+ */
+class MediaControllerTest {
+
+    private static final long LENGTH = 1000;
+    private static final long[] IGNORE = new long[0];
+
+    @Test
+    void closedRange() {
+        assertArrayEquals(new long[]{0, 99}, MediaController.parseRange("bytes=0-99", LENGTH));
+        assertArrayEquals(new long[]{500, 500}, MediaController.parseRange("bytes=500-500", LENGTH));
+        assertArrayEquals(new long[]{10, 20}, MediaController.parseRange("bytes= 10 - 20 ", LENGTH));
+    }
+
+    @Test
+    void endPastTheFileIsClamped() {
+        assertArrayEquals(new long[]{900, 999}, MediaController.parseRange("bytes=900-5000", LENGTH));
+    }
+
+    @Test
+    void openEndedRange() {
+        assertArrayEquals(new long[]{200, 999}, MediaController.parseRange("bytes=200-", LENGTH));
+        assertArrayEquals(new long[]{999, 999}, MediaController.parseRange("bytes=999-", LENGTH));
+    }
+
+    @Test
+    void suffixRange() {
+        assertArrayEquals(new long[]{900, 999}, MediaController.parseRange("bytes=-100", LENGTH));
+        // Longer than the file: the whole file
+        assertArrayEquals(new long[]{0, 999}, MediaController.parseRange("bytes=-5000", LENGTH));
+    }
+
+    @Test
+    void multiRangeIsIgnored() {
+        assertArrayEquals(IGNORE, MediaController.parseRange("bytes=0-99,200-299", LENGTH));
+        assertArrayEquals(IGNORE, MediaController.parseRange("bytes=0-99, -100", LENGTH));
+    }
+
+    @Test
+    void unsatisfiableRange() {
+        assertNull(MediaController.parseRange("bytes=1000-", LENGTH));
+        assertNull(MediaController.parseRange("bytes=1000-2000", LENGTH));
+        assertNull(MediaController.parseRange("bytes=-0", LENGTH));
+        assertNull(MediaController.parseRange("bytes=-10", 0));
+        assertNull(MediaController.parseRange("bytes=0-", 0));
+    }
+
+    @Test
+    void malformedRangeIsIgnored() {
+        assertArrayEquals(IGNORE, MediaController.parseRange("items=0-99", LENGTH));
+        assertArrayEquals(IGNORE, MediaController.parseRange("bytes=100", LENGTH));
+        assertArrayEquals(IGNORE, MediaController.parseRange("bytes=abc-def", LENGTH));
+        assertArrayEquals(IGNORE, MediaController.parseRange("bytes=-", LENGTH));
+        assertArrayEquals(IGNORE, MediaController.parseRange("bytes=50-10", LENGTH));
+    }
+}
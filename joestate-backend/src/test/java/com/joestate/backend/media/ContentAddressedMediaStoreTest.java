@@ -0,0 +1,141 @@
+package com.joestate.backend.media;
+
+import com.joestate.backend.entities.MediaBlob;
+import com.joestate.backend.repositories.MediaBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reference counting of the content-addressed store against a real (H2) media_blobs table:
+ * identical uploads share one file, the file goes with its last reference, and references
+ * follow the caller's transaction (a rolled-back delete keeps the file, a rolled-back upload
+ * gives its reference back).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:media-store;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "joestate.app.jwtSecret=bWVkaWEtc3RvcmUtdGVzdC1zZWNyZXQtbWVkaWEtc3RvcmUtdGVzdC1zZWNyZXQ=",
+        "joestate.app.jwtExpirationMs=3600000"
+})
+class ContentAddressedMediaStoreTest {
+
+    @Autowired private ContentAddressedMediaStore mediaStore;
+    @Autowired private MediaUploader mediaUploader;
+    @Autowired private MediaBlobRepository blobRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Test
+    void identicalUploadsShareOneFile() throws IOException {
+        String content = uniqueContent();
+        String first = store(content, "a.jpg");
+        String second = store(content, "b.JPEG");
+
+        assertEquals(first, second);
+        assertEquals(2, refCount(first));
+        assertTrue(Files.isRegularFile(mediaStore.resolve(first)));
+
+        String other = store(uniqueContent(), "c.jpg");
+        assertNotEquals(first, other);
+        assertEquals(1, refCount(other));
+
+        mediaStore.release(first, null);
+        mediaStore.release(first, null);
+        mediaStore.release(other, null);
+    }
+
+    @Test
+    void fileGoesWithItsLastReference() throws IOException {
+        String key = store(uniqueContent(), "photo.jpg");
+        store(contentOf(key), "copy.jpg");
+        Path derived = mediaStore.pathForWrite(key.replace(".jpg", "_thumb.jpg"));
+        Files.writeString(derived, "thumb");
+
+        mediaStore.release(key, List.of(derived.getFileName().toString()));
+        assertEquals(1, refCount(key));
+        assertTrue(Files.exists(mediaStore.resolve(key)));
+        assertTrue(Files.exists(derived));
+
+        mediaStore.release(key, List.of(derived.getFileName().toString()));
+        assertFalse(blobRepository.existsById(key));
+        assertFalse(Files.exists(mediaStore.resolve(key)));
+        assertFalse(Files.exists(derived));
+    }
+
+    @Test
+    void releaseWaitsForTheCallersCommit() throws IOException {
+        String key = store(uniqueContent(), "photo.jpg");
+
+        // Rolled back: the reference and the file stay
+        transactionTemplate.executeWithoutResult(status -> {
+            mediaStore.release(key, null);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, refCount(key));
+        assertTrue(Files.exists(mediaStore.resolve(key)));
+
+        // Committed: nothing happens until the commit, then the file goes
+        transactionTemplate.executeWithoutResult(status -> {
+            mediaStore.release(key, null);
+            assertEquals(1, refCount(key));
+            assertTrue(Files.exists(mediaStore.resolve(key)));
+        });
+        assertFalse(blobRepository.existsById(key));
+        assertFalse(Files.exists(mediaStore.resolve(key)));
+    }
+
+    @Test
+    void uploadInARolledBackTransactionIsHandedBack() {
+        String content = uniqueContent();
+        String[] key = new String[1];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            key[0] = mediaUploader.storeOne(new MockMultipartFile("file", "avatar.jpg", "image/jpeg",
+                    content.getBytes(StandardCharsets.UTF_8)));
+            // Committed right away, so another request can already count it
+            assertEquals(1, refCount(key[0]));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(blobRepository.existsById(key[0]));
+        assertFalse(Files.exists(mediaStore.resolve(key[0])));
+    }
+
+    // ==========================================
+    // HELPERS
+    // ==========================================
+
+    private String store(String content, String fileName) throws IOException {
+        return mediaStore.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), fileName);
+    }
+
+    private int refCount(String key) {
+        return blobRepository.findById(key).map(MediaBlob::getRefCount).orElse(0);
+    }
+
+    // Content is what gets deduplicated, so every test works on bytes no other test uses
+    private static String uniqueContent() {
+        return "media-store-test " + UUID.randomUUID();
+    }
+
+    private String contentOf(String key) throws IOException {
+        return Files.readString(mediaStore.resolve(key));
+    }
+}
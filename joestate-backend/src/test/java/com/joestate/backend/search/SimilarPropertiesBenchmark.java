@@ -0,0 +1,83 @@
+package com.joestate.backend.search;
+
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.events.PropertyChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of {@link PropertySearchIndex#similar} over a synthetic catalogue of 300k ACTIVE listings.
+ *
+ * The listings are spread over both purposes, every type, ~200 locations and a realistic price/area
+ * range, and about half have coordinates. Each query is a random listing of the catalogue asking
+ * for its 6 nearest, like the strip on the detail page. Reports the mean and the p99 per query;
+ * the numbers depend on the machine, so nothing is asserted about them.
+ *
+ * Not part of the normal build (surefire only picks up *Test classes). Run it with:
+ *   mvn test -Dtest=SimilarPropertiesBenchmark
+ */
+class SimilarPropertiesBenchmark {
+
+    private static final int LISTINGS = 300_000;
+    private static final int LOCATIONS = 200;
+    private static final int WARMUP_QUERIES = 2_000;
+    private static final int QUERIES = 5_000;
+    private static final int K = 6;
+
+    @Test
+    void similarOverThreeHundredThousandListings() {
+        Random random = new Random(42);
+        PropertySearchIndex index = new PropertySearchIndex(null, null);
+
+        Property[] catalogue = new Property[LISTINGS];
+        for (int i = 0; i < LISTINGS; i++) {
+            catalogue[i] = listing(i + 1, random);
+            index.onPropertyChanged(PropertyChangedEvent.created(catalogue[i]));
+        }
+
+        for (int i = 0; i < WARMUP_QUERIES; i++) index.similar(catalogue[random.nextInt(LISTINGS)], K);
+
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            Property source = catalogue[random.nextInt(LISTINGS)];
+            long start = System.nanoTime();
+            List<Long> result = index.similar(source, K);
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(K, result.size());
+        }
+
+        Arrays.sort(nanos);
+        double meanMs = Arrays.stream(nanos).average().orElse(0) / TimeUnit.MILLISECONDS.toNanos(1);
+        double p99Ms = nanos[(int) (QUERIES * 0.99)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        System.out.printf("%d listings, k=%d: mean %.2f ms, p99 %.2f ms per query%n", LISTINGS, K, meanMs, p99Ms);
+    }
+
+    private static Property listing(long id, Random random) {
+        Property p = new Property();
+        p.setPropertyId(id);
+        p.setStatus(Property.Status.ACTIVE);
+        p.setPurpose(Property.Purpose.values()[random.nextInt(Property.Purpose.values().length)]);
+        p.setType(Property.PropertyType.values()[random.nextInt(Property.PropertyType.values().length)]);
+        if (p.getPurpose() == Property.Purpose.RENT) {
+            p.setRentFrequency(Property.RentFrequency.values()[random.nextInt(Property.RentFrequency.values().length)]);
+            p.setPrice(150.0 + random.nextInt(2_000));
+        } else {
+            p.setPrice(20_000.0 + random.nextInt(500_000));
+        }
+        p.setArea(40.0 + random.nextInt(400));
+        p.setRoomCount(1 + random.nextInt(6));
+        p.setBathCount(1 + random.nextInt(4));
+        p.setLocation("Location " + random.nextInt(LOCATIONS));
+        if (random.nextBoolean()) {
+            p.setLatitude(31.8 + random.nextDouble() * 0.4);
+            p.setLongitude(35.7 + random.nextDouble() * 0.4);
+        }
+        return p;
+    }
+}
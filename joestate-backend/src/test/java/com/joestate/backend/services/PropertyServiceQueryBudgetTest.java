@@ -0,0 +1,217 @@
+package com.joestate.backend.services;
+
+import com.joestate.backend.dto.PropertyDTO;
+import com.joestate.backend.dto.PropertySearchCriteria;
+import com.joestate.backend.dto.PropertyView;
+import com.joestate.backend.entities.Favorite;
+import com.joestate.backend.entities.Property;
+import com.joestate.backend.entities.PropertyImage;
+import com.joestate.backend.entities.User;
+import com.joestate.backend.repositories.FavoriteRepository;
+import com.joestate.backend.repositories.PropertyRepository;
+import com.joestate.backend.repositories.UserRepository;
+import com.joestate.backend.search.LocationSuggestionIndex;
+import com.joestate.backend.search.PropertySearchIndex;
+import com.joestate.backend.search.PropertyTextIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements each listing read path issues (via Hibernate statistics) and fails
+ * when one goes over its budget. The budgets don't depend on the number of results: an N+1
+ * regression on owner or images shows up here as soon as a page has more than a handful of cards.
+ *
+ * Each call runs inside one transaction, like a web request with open-in-view, so a lazy load
+ * is counted instead of blowing up with LazyInitializationException.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "joestate.app.jwtSecret=cXVlcnktYnVkZ2V0LXRlc3Qtc2VjcmV0LXF1ZXJ5LWJ1ZGdldC10ZXN0LXNlY3JldA==",
+        "joestate.app.jwtExpirationMs=3600000"
+})
+class PropertyServiceQueryBudgetTest {
+
+    private static final int LISTINGS = 30;
+    private static final int IMAGES_PER_LISTING = 3;
+    private static final int FAVORITES = 10;
+
+    @Autowired private PropertyService propertyService;
+    @Autowired private PropertyRepository propertyRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private FavoriteRepository favoriteRepository;
+    @Autowired private PropertySearchIndex searchIndex;
+    @Autowired private PropertyTextIndex textIndex;
+    @Autowired private LocationSuggestionIndex locationIndex;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    // Seeded once for the whole class: the in-memory indexes and caches are singletons, so wiping
+    // and re-seeding between tests would leave them pointing at deleted IDs.
+    private static User buyer;
+    private static List<User> owners;
+
+    @BeforeEach
+    void seedOnce() {
+        if (buyer == null) seed();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(buyer.getEmail(), null, Collections.emptyList()));
+    }
+
+    @AfterEach
+    void logOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void seed() {
+        owners = new ArrayList<>();
+        for (int i = 0; i < 5; i++) owners.add(userRepository.save(user("owner" + i + "@test.jo")));
+        buyer = userRepository.save(user("buyer@test.jo"));
+
+        List<Property> saved = new ArrayList<>();
+        for (int i = 0; i < LISTINGS; i++) saved.add(propertyRepository.save(listing(i, owners.get(i % owners.size()))));
+        for (int i = 0; i < FAVORITES; i++) {
+            Favorite favorite = new Favorite();
+            favorite.setUser(buyer);
+            favorite.setProperty(saved.get(i));
+            favoriteRepository.save(favorite);
+        }
+
+        searchIndex.rebuild();
+        textIndex.rebuild();
+        locationIndex.rebuild();
+        propertyService.rebuildFeaturedSnapshot();
+    }
+
+    // ==========================================
+    // BUDGETS (statements per call, independent of result count)
+    // ==========================================
+
+    @Test
+    void searchStaysWithinBudget() {
+        List<PropertyDTO> result = withinBudget(2, () -> propertyService.searchProperties(new PropertySearchCriteria(), PropertyView.FULL));
+        assertEquals(LISTINGS, result.size());
+        assertEquals(FAVORITES, result.stream().filter(PropertyDTO::getIsFavorite).count());
+        assertTrue(result.stream().allMatch(dto -> dto.getImageUrls().size() == IMAGES_PER_LISTING));
+    }
+
+    @Test
+    void searchPageStaysWithinBudget() {
+        withinBudget(2, () -> propertyService.searchPropertiesPage(new PropertySearchCriteria(), null, null, 20, PropertyView.FULL));
+    }
+
+    @Test
+    void featuredIsServedFromTheSnapshot() {
+        // At most the one-off favorites load; the cards themselves come from memory
+        List<PropertyDTO> featured = withinBudget(1, () -> propertyService.getFeaturedProperties(false));
+        assertEquals(3, featured.size());
+
+        List<PropertyDTO> showcase = withinBudget(0, () -> propertyService.getFeaturedProperties(true));
+        assertEquals(12, showcase.size());
+    }
+
+    @Test
+    void detailStaysWithinBudget() {
+        Long id = propertyRepository.findAll().get(0).getPropertyId();
+        PropertyDTO dto = withinBudget(2, () -> propertyService.getPropertyById(id));
+        assertEquals(IMAGES_PER_LISTING, dto.getImageUrls().size());
+    }
+
+    @Test
+    void myListingsStayWithinBudget() {
+        List<PropertyDTO> result = withinBudget(2, () -> propertyService.getPropertiesByUser(owners.get(0).getEmail(), PropertyView.FULL));
+        assertEquals(LISTINGS / owners.size(), result.size());
+    }
+
+    @Test
+    void publicProfileStaysWithinBudget() {
+        withinBudget(1, () -> propertyService.getPublicUserProperties(owners.get(1).getUserId(), PropertyView.FULL));
+    }
+
+    @Test
+    void favoritesStayWithinBudget() {
+        List<PropertyDTO> result = withinBudget(3, () -> propertyService.getFavoritesByUser(buyer.getEmail(), PropertyView.FULL));
+        assertEquals(FAVORITES, result.size());
+        assertTrue(result.stream().allMatch(PropertyDTO::getIsFavorite));
+    }
+
+    @Test
+    void cardViewsStayWithinBudgetAndSkipHeavyFields() {
+        // Card rows + one query for the main images of the whole page
+        List<PropertyDTO> search = withinBudget(2, () -> propertyService.searchProperties(new PropertySearchCriteria(), PropertyView.CARD));
+        assertEquals(LISTINGS, search.size());
+        assertEquals(FAVORITES, search.stream().filter(PropertyDTO::getIsFavorite).count());
+        assertTrue(search.stream().allMatch(dto -> dto.getDescription() == null && dto.getOwnerPhone() == null));
+        assertTrue(search.stream().allMatch(dto -> dto.getImageUrls().size() == 1 && dto.getImageUrls().get(0).endsWith("-0.jpg")));
+
+        withinBudget(2, () -> propertyService.getPropertiesByUser(owners.get(0).getEmail(), PropertyView.CARD));
+        withinBudget(2, () -> propertyService.getPublicUserProperties(owners.get(1).getUserId(), PropertyView.CARD));
+        List<PropertyDTO> favorites = withinBudget(3, () -> propertyService.getFavoritesByUser(buyer.getEmail(), PropertyView.CARD));
+        assertEquals(FAVORITES, favorites.size());
+    }
+
+    // ==========================================
+    // HELPERS
+    // ==========================================
+
+    private <T> T withinBudget(int maxStatements, Supplier<T> call) {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        T result = transactionTemplate.execute(status -> call.get());
+
+        long statements = stats.getPrepareStatementCount();
+        assertTrue(statements <= maxStatements,
+                "Expected at most " + maxStatements + " SQL statements, but got " + statements);
+        return result;
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("x");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        return user;
+    }
+
+    private static Property listing(int i, User owner) {
+        Property p = new Property();
+        p.setOwner(owner);
+        p.setTitle("Apartment " + i);
+        p.setDescription("Sunny apartment number " + i);
+        p.setPrice(300.0 + i);
+        p.setArea(100.0 + i);
+        p.setLocation(i % 2 == 0 ? "Amman" : "Irbid");
+        p.setRoomCount(2 + i % 3);
+        p.setBathCount(1 + i % 2);
+        p.setType(Property.PropertyType.APARTMENT);
+        p.setPurpose(Property.Purpose.RENT);
+        p.setRentFrequency(Property.RentFrequency.MONTHLY);
+
+        List<PropertyImage> images = new ArrayList<>();
+        for (int j = 0; j < IMAGES_PER_LISTING; j++) images.add(new PropertyImage(null, p, "img-" + i + "-" + j + ".jpg", j == 0, null, null, null));
+        p.setImages(images);
+        return p;
+    }
+}
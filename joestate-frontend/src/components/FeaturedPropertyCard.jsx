@@ -8,8 +8,10 @@ const FeaturedPropertyCard = ({ property }) => {
     const formatPrice = (price) => new Intl.NumberFormat('en-JO').format(price);
 
     // Get image or placeholder
-    const mainImage = property.imageUrls && property.imageUrls.length > 0
-        ? `http://localhost:8080/uploads/${property.imageUrls[0]}`
+    // 640px card rendition (the backend falls back to the original until it's processed)
+    const cardImages = property.cardUrls && property.cardUrls.length > 0 ? property.cardUrls : property.imageUrls;
+    const mainImage = cardImages && cardImages.length > 0
+        ? `http://localhost:8080/uploads/${cardImages[0]}`
         : "https://images.unsplash.com/photo-1600596542815-2495db98dada?auto=format&fit=crop&q=80&w=800";
 
     return (
@@ -12,6 +12,7 @@ export const WebSocketProvider = ({ children }) => {
     const [unreadMessages, setUnreadMessages] = useState(0); // This now represents Unread THREADS
     const [myEmail, setMyEmail] = useState("");
     const [notifTrigger, setNotifTrigger] = useState(0);
+    const [failedMessage, setFailedMessage] = useState(null); // { threadId, messageId } the server could not save
 
     // Helper to fetch the exact number of unread threads
     const fetchUnreadThreadsCount = useCallback(async (token) => {
@@ -44,6 +45,7 @@ export const WebSocketProvider = ({ children }) => {
 
         const client = new Client({
             webSocketFactory: () => new SockJS("http://localhost:8080/ws"),
+            connectHeaders: { Authorization: `Bearer ${token}` },
             reconnectDelay: 5000,
             onConnect: () => {
                 console.log("🌍 Global WebSocket Connected!");
@@ -56,6 +58,9 @@ export const WebSocketProvider = ({ children }) => {
                         fetchUnreadThreadsCount(token);
                     } else if (alert.type === "NEW_NOTIFICATION") {
                         setNotifTrigger(prev => prev + 1);
+                    } else if (alert.type === "MESSAGE_FAILED") {
+                        // Already shown in the chat, but never saved: the chat page takes it back out
+                        setFailedMessage({ threadId: alert.threadId, messageId: alert.messageId });
                     }
                 });
             },
@@ -73,6 +78,7 @@ export const WebSocketProvider = ({ children }) => {
             unreadMessages,
             setUnreadMessages,
             notifTrigger,
+            failedMessage,
             myEmail
         }}>
             {children}
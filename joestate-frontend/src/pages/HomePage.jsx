@@ -25,6 +25,7 @@ const HomePage = () => {
             if(filters.maxArea) params.append("maxArea", filters.maxArea);
             if(filters.beds) params.append("beds", filters.beds);
             if(filters.baths) params.append("baths", filters.baths);
+            params.append("view", "card"); // cards only need the slim projection
 
             // Get the Token
             const token = localStorage.getItem("token");
@@ -6,22 +6,26 @@ import SockJS from "sockjs-client/dist/sockjs";
 import { Send, Image as ImageIcon, Info, User, ShieldAlert } from "lucide-react";
 import { useWebSocket } from "../context/WebSocketContext"
 
+// Messages per history page (the backend caps it at 100)
+const HISTORY_PAGE_SIZE = 50;
+
 const MessagesPage = () => {
     const navigate = useNavigate();
     const location = useLocation();
     const queryParams = new URLSearchParams(location.search);
     const urlThreadId = queryParams.get("thread");
-    const { setUnreadMessages } = useWebSocket();
+    const { setUnreadMessages, failedMessage } = useWebSocket();
 
     const [inbox, setInbox] = useState([]);
     const [activeThread, setActiveThread] = useState(null);
     const [messages, setMessages] = useState([]);
     const [newMessage, setNewMessage] = useState("");
     const [stompClient, setStompClient] = useState(null);
-    const [myEmail, setMyEmail] = useState("");
     const [currentUser, setCurrentUser] = useState(null);
+    const [hasOlderMessages, setHasOlderMessages] = useState(false);
 
     const chatContainerRef = useRef(null);
+    const keepScrollRef = useRef(null); // scroll height before prepending older messages
 
     // 1. Fetch User Email and Inbox on Mount
     useEffect(() => {
@@ -32,7 +36,6 @@ const MessagesPage = () => {
             try {
                 // Get my info
                 const userRes = await axios.get("/users/me", { headers: { Authorization: `Bearer ${token}` } });
-                setMyEmail(userRes.data.email);
                 setCurrentUser(userRes.data);
 
                 // Get my inbox
@@ -63,12 +66,35 @@ const MessagesPage = () => {
     useEffect(() => {
         const token = localStorage.getItem("token");
         if (activeThread && token) {
-            axios.get(`/chat/${activeThread.threadId}/history`, { headers: { Authorization: `Bearer ${token}` } })
-                .then(res => setMessages(res.data))
+            axios.get(`/chat/${activeThread.threadId}/history`, {
+                headers: { Authorization: `Bearer ${token}` },
+                params: { size: HISTORY_PAGE_SIZE }
+            })
+                .then(res => {
+                    setMessages(res.data);
+                    setHasOlderMessages(res.data.length === HISTORY_PAGE_SIZE);
+                })
                 .catch(err => console.error("Failed to load history", err));
         }
     }, [activeThread]);
 
+    // 2.5 Load the page before the oldest message on screen
+    const loadOlderMessages = () => {
+        const token = localStorage.getItem("token");
+        if (!activeThread || !token || messages.length === 0) return;
+
+        axios.get(`/chat/${activeThread.threadId}/history`, {
+            headers: { Authorization: `Bearer ${token}` },
+            params: { before: messages[0].messageId, size: HISTORY_PAGE_SIZE }
+        })
+            .then(res => {
+                keepScrollRef.current = chatContainerRef.current ? chatContainerRef.current.scrollHeight : null;
+                setMessages(prev => [...res.data, ...prev]);
+                setHasOlderMessages(res.data.length === HISTORY_PAGE_SIZE);
+            })
+            .catch(err => console.error("Failed to load older messages", err));
+    };
+
     // 3. Connect the WebSocket Engine!
     useEffect(() => {
         if (!activeThread) return;
@@ -87,6 +113,8 @@ const MessagesPage = () => {
 
         const client = new Client({
             webSocketFactory: () => new SockJS("http://localhost:8080/ws"),
+            // The server authenticates the connection once, from this header (it also decides who the sender is)
+            connectHeaders: { Authorization: `Bearer ${localStorage.getItem("token")}` },
             reconnectDelay: 5000,
             onConnect: () => {
                 console.log("🟢 Connected to WebSocket");
@@ -117,10 +145,22 @@ const MessagesPage = () => {
         return () => client.deactivate();
     }, [activeThread]);
 
+    // A message the server broadcast but then failed to save: remove it so the chat matches the history
+    useEffect(() => {
+        if (!failedMessage || !activeThread || failedMessage.threadId !== activeThread.threadId) return;
+        setMessages(prev => prev.filter(m => m.messageId !== failedMessage.messageId));
+    }, [failedMessage, activeThread]);
+
     // 4. Safely Scroll to bottom (No jumping to footer!)
+    // After loading older messages, keep the view where it was instead.
     useEffect(() => {
         if (chatContainerRef.current) {
-            chatContainerRef.current.scrollTop = chatContainerRef.current.scrollHeight;
+            if (keepScrollRef.current !== null) {
+                chatContainerRef.current.scrollTop = chatContainerRef.current.scrollHeight - keepScrollRef.current;
+                keepScrollRef.current = null;
+            } else {
+                chatContainerRef.current.scrollTop = chatContainerRef.current.scrollHeight;
+            }
         }
     }, [messages]);
 
@@ -129,9 +169,8 @@ const MessagesPage = () => {
         e.preventDefault();
         if (!newMessage.trim() || !stompClient || !stompClient.connected) return;
 
+        // No sender/receiver here: the server knows both from the authenticated connection and the thread
         const messagePayload = {
-            senderEmail: myEmail,
-            receiverEmail: activeThread.otherUserEmail,
             content: newMessage.trim()
         };
 
@@ -216,6 +255,13 @@ const MessagesPage = () => {
 
                         {/* Chat Body: Messages */}
                         <div ref={chatContainerRef} className="flex-grow p-4 overflow-y-auto space-y-4">
+                            {hasOlderMessages && (
+                                <div className="flex justify-center">
+                                    <button onClick={loadOlderMessages} className="text-xs font-semibold text-blue-600 hover:underline">
+                                        Load earlier messages
+                                    </button>
+                                </div>
+                            )}
                             {messages.map((msg, index) => {
                                 const isSentByMe = msg.senderName !== activeThread.otherUserName;
 
@@ -23,8 +23,8 @@ const ProfilePage = () => {
 
                 const [userRes, propsRes, favsRes] = await Promise.all([
                     axios.get("/users/me", { headers }),
-                    axios.get("/users/me/properties", { headers }),
-                    axios.get("/users/me/favorites", { headers })
+                    axios.get("/users/me/properties?view=card", { headers }),
+                    axios.get("/users/me/favorites?view=card", { headers })
                 ]);
 
                 setUser({ ...userRes.data, oldPassword: "", newPassword: "", confirmPassword: "" });
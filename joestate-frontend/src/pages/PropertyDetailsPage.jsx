@@ -161,8 +161,10 @@ const PropertyDetailsPage = () => {
 
     const formatPrice = (price) => new Intl.NumberFormat('en-JO').format(price);
 
-    const rawImages = property.imageUrls && property.imageUrls.length > 0
-        ? property.imageUrls.map(url => `http://localhost:8080/uploads/${url}`)
+    // Gallery shows the 1600px renditions; the originals (imageUrls) are only for the edit form
+    const galleryUrls = property.fullUrls && property.fullUrls.length > 0 ? property.fullUrls : property.imageUrls;
+    const rawImages = galleryUrls && galleryUrls.length > 0
+        ? galleryUrls.map(url => `http://localhost:8080/uploads/${url}`)
         : ["https://images.unsplash.com/photo-1600596542815-2495db98dada?auto=format&fit=crop&q=80&w=800"];
     const images = rawImages;
 
@@ -29,7 +29,7 @@ const PublicProfilePage = () => {
                 setProfile(userRes.data);
 
                 // Fetch User Properties
-                const propRes = await axios.get(`/properties/user/${userId}`);
+                const propRes = await axios.get(`/properties/user/${userId}?view=card`);
 
                 // --- GP2: SMART SORTING ---
                 const sortedProperties = propRes.data.sort((a, b) => {